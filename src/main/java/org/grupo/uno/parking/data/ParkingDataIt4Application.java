@@ -2,8 +2,10 @@ package org.grupo.uno.parking.data;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ParkingDataIt4Application {
 
 	public static void main(String[] args) {
@@ -0,0 +1,95 @@
+package org.grupo.uno.parking.data.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.grupo.uno.parking.data.model.AuditHourlyStats;
+import org.grupo.uno.parking.data.model.AuditHourlyStatsId;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AuditHourlyStatsRepository;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audits go through their own pool (audit.datasource.*), so a slow audit insert or
+ * a burst of /audith queries never holds the connections that gate entries and
+ * exits need. It points at the main database unless configured otherwise; set
+ * audit.datasource.hikari.schema to keep the audit tables in another schema.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = AudithRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {AudithRepository.class, AuditHourlyStatsRepository.class}),
+        entityManagerFactoryRef = "auditEntityManagerFactory",
+        transactionManagerRef = AuditDataSourceConfig.TRANSACTION_MANAGER)
+public class AuditDataSourceConfig {
+
+    public static final String TRANSACTION_MANAGER = "auditTransactionManager";
+
+    static final List<String> ENTITIES = List.of(Audith.class.getName(), AuditHourlyStats.class.getName(),
+            AuditHourlyStatsId.class.getName());
+
+    @Bean
+    @ConfigurationProperties("audit.datasource")
+    public DataSourceProperties auditDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("audit.datasource.hikari")
+    public HikariDataSource auditDataSource(@Qualifier("auditDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean auditEntityManagerFactory(EntityManagerFactoryBuilder builder,
+                                                                            @Qualifier("auditDataSource") HikariDataSource dataSource,
+                                                                            JpaProperties jpaProperties,
+                                                                            HibernateProperties hibernateProperties,
+                                                                            ObjectProvider<HibernatePropertiesCustomizer> customizers) {
+        Map<String, Object> properties = new HashMap<>(
+                PrimaryDataSourceConfig.hibernateProperties(jpaProperties, hibernateProperties, customizers));
+        // La caché de segundo nivel es solo para parqueos y tarifas
+        properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        properties.put(AvailableSettings.GENERATE_STATISTICS, false);
+        return builder.dataSource(dataSource)
+                .managedTypes(PersistenceManagedTypes.of(ENTITIES, List.of()))
+                .persistenceUnit("audit")
+                .properties(properties)
+                .build();
+    }
+
+    @Bean(TRANSACTION_MANAGER)
+    public PlatformTransactionManager auditTransactionManager(
+            @Qualifier("auditEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public TransactionTemplate auditTransactionTemplate(
+            @Qualifier(TRANSACTION_MANAGER) PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+}
@@ -0,0 +1,16 @@
+package org.grupo.uno.parking.data.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.grupo.uno.parking.data.converter.JsonbFormatMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JsonbConfig {
+    @Bean
+    public HibernatePropertiesCustomizer jsonFormatMapperCustomizer(ObjectMapper objectMapper) {
+        return properties -> properties.put(AvailableSettings.JSON_FORMAT_MAPPER, new JsonbFormatMapper(objectMapper));
+    }
+}
@@ -1,31 +0,0 @@
-package org.grupo.uno.parking.data.configuration;
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.util.Map;
-
-@Converter(autoApply = true)
-public class MapToJsonConverter implements AttributeConverter<Map<String, Object>, String> {
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Override
-    public String convertToDatabaseColumn(Map<String, Object> map) {
-        try {
-            return objectMapper.writeValueAsString(map);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("Could not convert map to JSON", e);
-        }
-    }
-
-    @Override
-    public Map<String, Object> convertToEntityAttribute(String json) {
-        try {
-            return objectMapper.readValue(json, Map.class);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("Could not convert JSON to map", e);
-        }
-    }
-}
@@ -0,0 +1,95 @@
+package org.grupo.uno.parking.data.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.grupo.uno.parking.data.model.Parking;
+import org.grupo.uno.parking.data.repository.AuditHourlyStatsRepository;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.grupo.uno.parking.data.repository.ParkingRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+
+// Parqueos, tarifas, registros y usuarios; las auditorías van por AuditDataSourceConfig
+@Configuration
+@EnableJpaRepositories(basePackageClasses = ParkingRepository.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {AudithRepository.class, AuditHourlyStatsRepository.class}))
+public class PrimaryDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(EntityManagerFactoryBuilder builder,
+                                                                       HikariDataSource dataSource,
+                                                                       ResourceLoader resourceLoader,
+                                                                       JpaProperties jpaProperties,
+                                                                       HibernateProperties hibernateProperties,
+                                                                       ObjectProvider<HibernatePropertiesCustomizer> customizers) {
+        List<String> entities = new PersistenceManagedTypesScanner(resourceLoader)
+                .scan(Parking.class.getPackageName())
+                .getManagedClassNames().stream()
+                .filter(name -> !AuditDataSourceConfig.ENTITIES.contains(name))
+                .toList();
+        return builder.dataSource(dataSource)
+                .managedTypes(PersistenceManagedTypes.of(entities, List.of()))
+                .persistenceUnit("default")
+                .properties(hibernateProperties(jpaProperties, hibernateProperties, customizers))
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    @Primary
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    // Lo mismo que aplica Spring Boot cuando crea él solo el EntityManagerFactory (naming strategy, customizers, ddl-auto)
+    static Map<String, Object> hibernateProperties(JpaProperties jpaProperties, HibernateProperties hibernateProperties,
+                                                   ObjectProvider<HibernatePropertiesCustomizer> customizers) {
+        return hibernateProperties.determineHibernateProperties(jpaProperties.getProperties(),
+                new HibernateSettings()
+                        .ddlAuto(() -> "none")
+                        .hibernatePropertiesCustomizers(customizers.orderedStream().toList()));
+    }
+}
@@ -2,21 +2,35 @@ package org.grupo.uno.parking.data.controller;
 
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.Valid;
+import jakarta.validation.ValidationException;
+import org.grupo.uno.parking.data.dto.AuditExportFormat;
+import org.grupo.uno.parking.data.dto.AuditJournalMetricsDTO;
+import org.grupo.uno.parking.data.dto.AuditPolicyDTO;
+import org.grupo.uno.parking.data.dto.AuditSearchRequest;
+import org.grupo.uno.parking.data.dto.AuditWriterMetricsDTO;
 import org.grupo.uno.parking.data.dto.AudithDTO;
+import org.grupo.uno.parking.data.dto.StatsGranularity;
 import org.grupo.uno.parking.data.dto.DateRangeRequest;
 import org.grupo.uno.parking.data.model.Audith;
 import org.grupo.uno.parking.data.service.AudithService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -59,6 +73,58 @@ public class AudithController {
         }
     }
 
+    @RolesAllowed("AUDITH")
+    @GetMapping("/writer/metrics")
+    public ResponseEntity<AuditWriterMetricsDTO> getWriterMetrics() {
+        return ResponseEntity.ok(audithService.getWriterMetrics());
+    }
+
+    @RolesAllowed("AUDITH")
+    @GetMapping("/journal/metrics")
+    public ResponseEntity<AuditJournalMetricsDTO> getJournalMetrics() {
+        return ResponseEntity.ok(audithService.getJournalMetrics());
+    }
+
+    @RolesAllowed("AUDITH")
+    @GetMapping("/stats")
+    public ResponseEntity<Object> getAuditStats(@RequestParam(required = false) LocalDate startDate,
+                                                @RequestParam(required = false) LocalDate endDate,
+                                                @RequestParam(required = false) String entity,
+                                                @RequestParam(defaultValue = "DAY") StatsGranularity granularity) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(89);
+        try {
+            return ResponseEntity.ok(audithService.getAuditStats(start, end, entity, granularity));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("err", e.getMessage()));
+        }
+    }
+
+    @RolesAllowed("AUDITH")
+    @GetMapping("/policy")
+    public ResponseEntity<List<AuditPolicyDTO>> getAuditPolicies() {
+        return ResponseEntity.ok(audithService.getAuditPolicies());
+    }
+
+    @RolesAllowed("AUDITH")
+    @PutMapping("/policy")
+    public ResponseEntity<Object> setAuditPolicy(@RequestBody AuditPolicyDTO policy) {
+        try {
+            return ResponseEntity.ok(audithService.setAuditPolicy(policy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @RolesAllowed("AUDITH")
+    @DeleteMapping("/policy/{entity}/{operation}")
+    public ResponseEntity<Void> removeAuditPolicy(@PathVariable String entity, @PathVariable String operation) {
+        if (audithService.removeAuditPolicy(entity, operation)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
     @RolesAllowed("AUDITH")
     @GetMapping("/{id}")
     public ResponseEntity<AudithDTO> getAuditById(@PathVariable("id") long id) {
@@ -85,14 +151,37 @@ public class AudithController {
         }
     }
 
+    @RolesAllowed("AUDITH")
+    @GetMapping("/entity/{entity}/{id}/history")
+    public ResponseEntity<Map<String, Object>> getEntityHistory(@PathVariable("entity") String entity, @PathVariable("id") long id,
+                                                                @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Page<Audith> auditsPage = audithService.getEntityHistory(entity, id, page, size);
+            response.put(MESSAGE_KEY, AUDITS_RECOVERED_SUCCESS);
+            response.put(AUDITHS_KEY, auditsPage.getContent());
+            response.put(TOTAL_PAGES_KEY, auditsPage.getTotalPages());
+            response.put(CURRENT_PAGE_KEY, auditsPage.getNumber());
+            response.put(TOTAL_ELEMENTS_KEY, auditsPage.getTotalElements());
+            // El historial solo lee la tabla; lo anterior a esta fecha puede estar archivado
+            response.put("archivedBefore", audithService.getArchivedBefore(null));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error al recuperar el historial de {} {}: {}", entity, id, e.getMessage(), e);
+            response.put("err", "Error al recuperar auditorías: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @RolesAllowed("AUDITH")
     @PostMapping("/date-range")
-    public ResponseEntity<Map<String, Object>> getAuditsByDateRange(@RequestBody DateRangeRequest dateRangeRequest, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<Map<String, Object>> getAuditsByDateRange(@RequestBody DateRangeRequest dateRangeRequest, @RequestParam(required = false) String entity,
+                                                                    @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
         Map<String, Object> response = new HashMap<>();
         try {
             LocalDateTime startDate = LocalDateTime.parse(dateRangeRequest.getStartDate());
             LocalDateTime endDate = LocalDateTime.parse(dateRangeRequest.getEndDate());
-            Page<Audith> auditsPage = audithService.getAuditsByDateRange(startDate, endDate, page, size);
+            Page<Audith> auditsPage = audithService.getAuditsByDateRange(startDate, endDate, entity, page, size);
             response.put(MESSAGE_KEY, AUDITS_RECOVERED_SUCCESS);
             response.put(AUDITHS_KEY, auditsPage.getContent());
             response.put(TOTAL_PAGES_KEY, auditsPage.getTotalPages());
@@ -110,12 +199,61 @@ public class AudithController {
         }
     }
 
+    @RolesAllowed("AUDITH")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAudits(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "NDJSON") AuditExportFormat format) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            try {
+                audithService.exportAudits(startDate, endDate, format, outputStream);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error exportando auditorías: ", e);
+                throw e;
+            }
+        };
+        String fileName = "audits-" + startDate.toLocalDate() + "-" + endDate.toLocalDate() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    @RolesAllowed("AUDITH")
+    @PostMapping("/search")
+    public ResponseEntity<Object> searchAudits(@RequestBody AuditSearchRequest searchRequest) {
+        try {
+            return ResponseEntity.ok(audithService.searchAudits(searchRequest));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("err", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error buscando auditorías: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("err", "Error buscando auditorías: " + e.getMessage()));
+        }
+    }
+
+    @RolesAllowed("AUDITH")
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveAudits() {
+        try {
+            return ResponseEntity.ok(Map.of("archived", audithService.archiveAudits()));
+        } catch (Exception e) {
+            logger.error("Error archivando auditorías: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("err", "Error archivando auditorías: " + e.getMessage()));
+        }
+    }
+
     @RolesAllowed("AUDITH")
     @PostMapping("/manual")
     public ResponseEntity<String> createManualAudit(@Valid @RequestBody Audith auditRequest) {
         try {
             audithService.createAudit(
                     auditRequest.getEntity(),
+                    auditRequest.getEntityId(),
                     auditRequest.getDescription(),
                     auditRequest.getOperation(),
                     auditRequest.getRequest(),
@@ -143,6 +281,7 @@ public class AudithController {
         AudithDTO dto = new AudithDTO();
         dto.setAuditId(audit.getAuditId());
         dto.setEntity(audit.getEntity());
+        dto.setEntityId(audit.getEntityId());
         dto.setStartDate(convertToOffsetDateTime(audit.getStartDate()));
         dto.setDescription(audit.getDescription());
         dto.setOperation(audit.getOperation());
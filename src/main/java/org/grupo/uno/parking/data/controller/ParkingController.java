@@ -3,7 +3,11 @@ package org.grupo.uno.parking.data.controller;
 
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ActiveVehicleDTO;
+import org.grupo.uno.parking.data.dto.CacheRegionStatsDTO;
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
 import org.grupo.uno.parking.data.dto.ParkingDTO;
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
 import org.grupo.uno.parking.data.model.Parking;
 import org.grupo.uno.parking.data.service.ParkingService;
 import org.grupo.uno.parking.data.repository.UserRepository;
@@ -14,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -89,6 +94,54 @@ public class ParkingController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    @RolesAllowed("PARKING")
+    @GetMapping("/{id}/occupancy")
+    public ResponseEntity<OccupancyDTO> getOccupancy(@PathVariable("id") long id) {
+        try {
+            return ResponseEntity.ok(parkingService.getOccupancy(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @RolesAllowed("PARKING")
+    @GetMapping("/{id}/active-vehicles")
+    public ResponseEntity<List<ActiveVehicleDTO>> getActiveVehicles(@PathVariable("id") long id) {
+        return ResponseEntity.ok(parkingService.getActiveVehicles(id));
+    }
+
+    @RolesAllowed("PARKING")
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ParkingStatsDTO> getStats(@PathVariable("id") long id,
+                                                    @RequestParam LocalDate startDate,
+                                                    @RequestParam LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(parkingService.getStats(id, startDate, endDate));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @RolesAllowed("PARKING")
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildStats(@RequestParam LocalDate startDate,
+                                                            @RequestParam LocalDate endDate) {
+        try {
+            long rows = parkingService.rebuildStats(startDate, endDate);
+            return ResponseEntity.ok(Map.of("startDate", startDate, "endDate", endDate, "rows", rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @RolesAllowed("PARKING")
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(parkingService.getCacheStats());
+    }
+
     @RolesAllowed("PARKING")
     @PostMapping("/saveParking")
     public ResponseEntity<Parking> createParking(@RequestBody ParkingDTO parkingDTO) {
@@ -1,13 +1,14 @@
 package org.grupo.uno.parking.data.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.annotation.security.RolesAllowed;
+import org.grupo.uno.parking.data.dto.BatchResultDTO;
 import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.dto.ReportFormat;
 import org.grupo.uno.parking.data.exceptions.NoRegistersFoundException;
+import org.grupo.uno.parking.data.exceptions.ParkingFullException;
+import org.grupo.uno.parking.data.exceptions.VehicleAlreadyInsideException;
 import org.grupo.uno.parking.data.service.IRegisterService;
-import org.grupo.uno.parking.data.service.PdfService;
+import org.grupo.uno.parking.data.service.ReportCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
@@ -17,7 +18,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -27,15 +30,16 @@ import java.util.List;
 @RequestMapping("/registers")
 public class RegisterController {
     private static final Logger logger = LoggerFactory.getLogger(RegisterController.class);
+    private static final int MAX_BATCH_SIZE = 1000;
 
 
     private final IRegisterService registerService;
 
-    private final PdfService pdfService;
+    private final ReportCache reportCache;
 
-    public RegisterController (IRegisterService registerService, PdfService pdfService) {
+    public RegisterController (IRegisterService registerService, ReportCache reportCache) {
         this.registerService = registerService;
-        this.pdfService = pdfService;
+        this.reportCache = reportCache;
     }
 
     @RolesAllowed("REGISTER")
@@ -48,6 +52,9 @@ public class RegisterController {
         try {
             RegisterDTO newRegister = registerService.registroDeEntrada(registerDTO.getPlate(), registerDTO.getParkingId());
             return new ResponseEntity<>(newRegister, HttpStatus.CREATED);
+        } catch (ParkingFullException | VehicleAlreadyInsideException e) {
+            logger.warn("Entrada rechazada: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (Exception e) {
             logger.error("Error en registro de entrada: ", e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -69,6 +76,36 @@ public class RegisterController {
         }
     }
 
+    @RolesAllowed("REGISTER")
+    @PostMapping("/entrada/batch")
+    public ResponseEntity<List<BatchResultDTO>> registroDeEntradaBatch(@RequestBody List<RegisterDTO> entries) {
+        if (entries == null || entries.isEmpty() || entries.size() > MAX_BATCH_SIZE) {
+            logger.error("Lote de entradas inválido: {} eventos", entries == null ? 0 : entries.size());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(registerService.registroDeEntradaBatch(entries), HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error en registro de entrada en lote: ", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @RolesAllowed("REGISTER")
+    @PutMapping("/salida/batch")
+    public ResponseEntity<List<BatchResultDTO>> registroDeSalidaBatch(@RequestBody List<String> plates) {
+        if (plates == null || plates.isEmpty() || plates.size() > MAX_BATCH_SIZE) {
+            logger.error("Lote de salidas inválido: {} eventos", plates == null ? 0 : plates.size());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(registerService.registroDeSalidaBatch(plates), HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error en registro de salida en lote: ", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @RolesAllowed("REGISTER")
     @GetMapping("")
     public ResponseEntity<Page<RegisterDTO>> getAllRegisters(
@@ -150,28 +187,50 @@ public class RegisterController {
         }
     }
 
+    @RolesAllowed("REGISTER")
+    @GetMapping("/report/{parkingId}/{startDate}/{endDate}/stream")
+    public ResponseEntity<StreamingResponseBody> streamRegistersByParkingId(@PathVariable Long parkingId,
+                                                                            @PathVariable LocalDate startDate,
+                                                                            @PathVariable LocalDate endDate) {
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+        StreamingResponseBody body = outputStream -> {
+            try {
+                registerService.exportReport(parkingId, startDateTime, endDateTime, ReportFormat.NDJSON, outputStream);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error transmitiendo reporte por ID de estacionamiento: ", e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ReportFormat.NDJSON.getContentType()))
+                .body(body);
+    }
+
     @RolesAllowed("REGISTER")
     @PostMapping("/generatePDF/{parkingId}/{startDate}/{endDate}")
-    public ResponseEntity<byte[]> getRegistersByParkingIdPDF(@PathVariable Long parkingId,
-                                                             @PathVariable LocalDate startDate,
-                                                             @PathVariable LocalDate endDate) {
+    public ResponseEntity<StreamingResponseBody> getRegistersByParkingIdPDF(@PathVariable Long parkingId,
+                                                                            @PathVariable LocalDate startDate,
+                                                                            @PathVariable LocalDate endDate) {
         logger.info("Generating PDF for parkingId: {}", parkingId);
         try {
             LocalDateTime startDateTime = startDate.atStartOfDay();
             LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-            List<RegisterDTO> registers = registerService.generateReportByParkingIdPDF(parkingId, startDateTime, endDateTime);
-            if (registers.isEmpty()) {
+            if (!reportCache.contains(parkingId, startDateTime, endDateTime, ReportFormat.PDF)
+                    && !registerService.hasReportRows(parkingId, startDateTime, endDateTime)) {
                 throw new NoRegistersFoundException("No registers found for parkingId: " + parkingId);
             }
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.registerModule(new JavaTimeModule());
-            String json = objectMapper.writeValueAsString(registers);
-            logger.debug("Generated JSON: {}", json);
-
-            byte[] pdfBytes = pdfService.generatePdfFromJson(json);
-            logger.info("PDF generated successfully");
+            StreamingResponseBody body = outputStream -> {
+                try {
+                    registerService.exportReport(parkingId, startDateTime, endDateTime, ReportFormat.PDF, outputStream);
+                    logger.info("PDF generated successfully");
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Error generating PDF: ", e);
+                    throw e;
+                }
+            };
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -179,13 +238,10 @@ public class RegisterController {
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(pdfBytes);
+                    .body(body);
         } catch (NoRegistersFoundException e) {
             logger.error("Error generating PDF: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
-        } catch (JsonProcessingException e) {
-            logger.error("Error processing JSON: ", e);
-            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error generating PDF: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
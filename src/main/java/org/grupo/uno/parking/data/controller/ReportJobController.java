@@ -0,0 +1,74 @@
+package org.grupo.uno.parking.data.controller;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.dto.ReportJobDTO;
+import org.grupo.uno.parking.data.exceptions.ReportQueueFullException;
+import org.grupo.uno.parking.data.service.IReportJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/registers/report-jobs")
+public class ReportJobController {
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobController.class);
+
+    private final IReportJobService reportJobService;
+
+    public ReportJobController(IReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @RolesAllowed("REGISTER")
+    @PostMapping("/{parkingId}/{startDate}/{endDate}")
+    public ResponseEntity<ReportJobDTO> submitReportJob(@PathVariable Long parkingId,
+                                                        @PathVariable LocalDate startDate,
+                                                        @PathVariable LocalDate endDate,
+                                                        @RequestParam(defaultValue = "PDF") ReportFormat format) {
+        if (endDate.isBefore(startDate)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(reportJobService.submit(parkingId, startDate, endDate, format), HttpStatus.ACCEPTED);
+        } catch (ReportQueueFullException e) {
+            logger.warn("Reporte rechazado: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
+    @RolesAllowed("REGISTER")
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable String jobId) {
+        return reportJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @RolesAllowed("REGISTER")
+    @GetMapping("/{jobId}/file")
+    public ResponseEntity<Resource> downloadReportJob(@PathVariable String jobId) {
+        try {
+            ReportJobDTO job = reportJobService.getJob(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Report job " + jobId + " does not exist"));
+            Resource file = reportJobService.getJobFile(jobId);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType(job.getFormat().getContentType()));
+            headers.setContentDispositionFormData("attachment", file.getFilename());
+            return ResponseEntity.ok().headers(headers).body(file);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            logger.warn("Reporte no disponible: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -1,59 +0,0 @@
-package org.grupo.uno.parking.data.converter;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
-
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
-@Converter(autoApply = true)
-public class JsonbConverter implements AttributeConverter<Map<String, Object>, String> {
-
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
-    @Override
-    public String convertToDatabaseColumn(Map<String, Object> attribute) {
-        if (attribute == null || attribute.isEmpty()) {
-            return null;
-        }
-
-        validateMap(attribute);
-
-        try {
-            return OBJECT_MAPPER.writeValueAsString(attribute);
-        } catch (JsonProcessingException e) {
-            throw new IllegalArgumentException("Failed to convert map to JSON for database", e);
-        }
-    }
-
-    @Override
-    public Map<String, Object> convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.isEmpty()) {
-            return new HashMap<>();
-        }
-        try {
-            return OBJECT_MAPPER.readValue(dbData, new TypeReference<>() {});
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Failed to convert JSON to map for entity", e);
-        }
-    }
-
-    private void validateMap(Map<String, Object> map) {
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            Object value = entry.getValue();
-            try {
-                OBJECT_MAPPER.writeValueAsString(value);
-            } catch (JsonProcessingException e) {
-                throw new IllegalArgumentException("The value cannot be serialized: " + value, e);
-            }
-        }
-    }
-}
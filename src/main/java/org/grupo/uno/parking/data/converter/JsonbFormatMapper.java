@@ -0,0 +1,57 @@
+package org.grupo.uno.parking.data.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.JavaType;
+import org.hibernate.type.format.FormatMapper;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds {@code @JdbcTypeCode(SqlTypes.JSON)} attributes as jsonb. The writer and
+ * the readers are built once, so every value is serialized in a single pass.
+ */
+public class JsonbFormatMapper implements FormatMapper {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final ConcurrentHashMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JsonbFormatMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T fromString(CharSequence charSequence, JavaType<T> javaType, WrapperOptions wrapperOptions) {
+        if (javaType.getJavaType() == String.class) {
+            return (T) charSequence.toString();
+        }
+        try {
+            return readerFor(javaType.getJavaType()).readValue(charSequence.toString());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to convert JSON to " + javaType.getTypeName(), e);
+        }
+    }
+
+    @Override
+    public <T> String toString(T value, JavaType<T> javaType, WrapperOptions wrapperOptions) {
+        if (value instanceof String json && javaType.getJavaType() == String.class) {
+            return json;
+        }
+        try {
+            return writer.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The value cannot be serialized: " + javaType.getTypeName(), e);
+        }
+    }
+
+    private ObjectReader readerFor(Type type) {
+        return readers.computeIfAbsent(type, key -> objectMapper.readerFor(objectMapper.constructType(key)));
+    }
+}
@@ -0,0 +1,17 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV_GZIP("application/gzip", "csv.gz");
+
+    private final String contentType;
+    private final String extension;
+
+    AuditExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
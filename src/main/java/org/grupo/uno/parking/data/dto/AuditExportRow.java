@@ -0,0 +1,15 @@
+package org.grupo.uno.parking.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Proyección de Audith para exportar sin cargar entidades en el contexto de persistencia
+public record AuditExportRow(long auditId, String entity, Long entityId,
+                             @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS") LocalDateTime startDate,
+                             long occurrences,
+                             @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS") LocalDateTime lastDate,
+                             String description, String operation, String result,
+                             Map<String, Object> request, Map<String, Object> response) {
+}
@@ -0,0 +1,21 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditJournalMetricsDTO {
+    private boolean enabled;
+    private long pendingSegments;
+    private long appended;
+    private long shipped;
+    private long corrupt;
+    private long failedShipments;
+    private long deadLettered;
+    private long lastShipMillis;
+}
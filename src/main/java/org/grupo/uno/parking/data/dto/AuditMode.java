@@ -0,0 +1,8 @@
+package org.grupo.uno.parking.data.dto;
+
+public enum AuditMode {
+    ALWAYS,
+    SAMPLED,
+    COALESCED,
+    OFF
+}
@@ -0,0 +1,20 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditPolicyDTO {
+    private String entity;
+    private String operation;
+    private AuditMode mode;
+    private Integer samplePercent;
+    private Long windowSeconds;
+    private long recorded;
+    private long skipped;
+}
@@ -0,0 +1,27 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSearchRequest {
+    private String entity;
+    private String operation;
+    private String result;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    // Campo del request o response, con puntos para niveles anidados (p. ej. "plate")
+    private String path;
+    private String value;
+    // Última auditoría de la página anterior
+    private LocalDateTime cursorDate;
+    private Long cursorId;
+    private Integer size;
+}
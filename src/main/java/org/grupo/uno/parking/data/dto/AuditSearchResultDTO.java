@@ -0,0 +1,21 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSearchResultDTO {
+    private List<AudithDTO> audits;
+    private LocalDateTime nextCursorDate;
+    private Long nextCursorId;
+    // Si no es null, las auditorías anteriores a esta fecha pueden estar archivadas y no se buscaron
+    private LocalDateTime archivedBefore;
+}
@@ -0,0 +1,20 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditStatsDTO {
+    private LocalDateTime period;
+    private String entity;
+    private String operation;
+    private String result;
+    private long count;
+}
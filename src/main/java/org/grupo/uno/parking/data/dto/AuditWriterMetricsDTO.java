@@ -0,0 +1,24 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditWriterMetricsDTO {
+    private String backpressure;
+    private int queued;
+    private int capacity;
+    private long enqueued;
+    private long written;
+    private long dropped;
+    private long droppedReads;
+    private long spilled;
+    private long failed;
+    private long batches;
+    private long lastFlushMillis;
+}
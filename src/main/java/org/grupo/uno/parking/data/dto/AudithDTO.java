@@ -9,7 +9,10 @@ import java.util.Map;
 public class AudithDTO {
     private long auditId;
     private String entity;
+    private Long entityId;
     private OffsetDateTime startDate;
+    private long occurrences;
+    private OffsetDateTime lastDate;
     private String description;
     private String operation;
     private String result;
@@ -0,0 +1,18 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+    private int index;
+    private String plate;
+    private int status;
+    private RegisterDTO register;
+    private String error;
+}
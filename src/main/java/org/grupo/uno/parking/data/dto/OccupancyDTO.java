@@ -0,0 +1,17 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyDTO {
+    private long parkingId;
+    private int spaces;
+    private int occupied;
+    private int available;
+}
@@ -0,0 +1,17 @@
+package org.grupo.uno.parking.data.dto;
+
+import lombok.Getter;
+
+@Getter
+public enum ReportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    PDF("application/pdf", "pdf");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,8 @@
+package org.grupo.uno.parking.data.dto;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
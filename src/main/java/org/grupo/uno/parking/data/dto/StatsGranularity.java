@@ -0,0 +1,6 @@
+package org.grupo.uno.parking.data.dto;
+
+public enum StatsGranularity {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,7 @@
+package org.grupo.uno.parking.data.exceptions;
+
+public class ParkingFullException extends RuntimeException{
+    public ParkingFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.grupo.uno.parking.data.exceptions;
+
+public class ReportQueueFullException extends RuntimeException{
+    public ReportQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.grupo.uno.parking.data.exceptions;
+
+public class VehicleAlreadyInsideException extends RuntimeException{
+    public VehicleAlreadyInsideException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package org.grupo.uno.parking.data.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "audit_hourly_stats")
+public class AuditHourlyStats {
+
+    @EmbeddedId
+    private AuditHourlyStatsId id;
+
+    @Column(name = "audit_count", nullable = false)
+    private long auditCount;
+}
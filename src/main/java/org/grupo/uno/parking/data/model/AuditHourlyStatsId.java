@@ -0,0 +1,33 @@
+package org.grupo.uno.parking.data.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class AuditHourlyStatsId implements Serializable {
+
+    @Column(name = "bucket")
+    private LocalDateTime bucket;
+
+    @Column(name = "entity")
+    private String entity;
+
+    @Column(name = "operation")
+    private String operation;
+
+    @Column(name = "result")
+    private String result;
+}
@@ -3,7 +3,8 @@ package org.grupo.uno.parking.data.model;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.Data;
-import org.grupo.uno.parking.data.converter.JsonbConverter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -14,22 +15,32 @@ import java.util.Map;
 public class Audith {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audith_seq")
+    @SequenceGenerator(name = "audith_seq", sequenceName = "audith_seq", allocationSize = 50)
     @Column(name = "audit_id")
     private long auditId;
 
     private String entity;
 
+    @Column(name = "entity_id")
+    private Long entityId;
+
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS")
     private LocalDateTime startDate;
 
+    // Auditorías idénticas agrupadas en esta fila; lastDate solo se guarda si hay más de una
+    private long occurrences = 1;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS")
+    private LocalDateTime lastDate;
+
     private String description;
     private String operation;
     private String result;
 
-    @Convert(converter = JsonbConverter.class)
+    @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> request;
 
-    @Convert(converter = JsonbConverter.class)
+    @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> response;
 }
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 @Entity
@@ -13,9 +15,12 @@ import lombok.Setter;
 @Getter
 @Setter
 @Table(name = "fare")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "fare")
 public class Fare {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fare_seq")
+    @SequenceGenerator(name = "fare_seq", sequenceName = "fare_seq", allocationSize = 50)
     @Column(name = "fare_id")
     private Long fareId;
     private String name;
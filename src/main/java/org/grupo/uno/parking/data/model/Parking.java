@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @NoArgsConstructor
@@ -13,9 +15,12 @@ import lombok.Setter;
 @Getter
 @Setter
 @Table(name = "parking")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "parking")
 public class Parking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_seq")
+    @SequenceGenerator(name = "parking_seq", sequenceName = "parking_seq", allocationSize = 50)
     @Column(name = "parking_id")
     private long parkingId;
 
@@ -0,0 +1,30 @@
+package org.grupo.uno.parking.data.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "parking_daily_stats")
+public class ParkingDailyStats {
+
+    @EmbeddedId
+    private ParkingDailyStatsId id;
+
+    @Column(name = "register_count", nullable = false)
+    private long registerCount;
+
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "minutes", nullable = false)
+    private long minutes;
+}
@@ -0,0 +1,30 @@
+package org.grupo.uno.parking.data.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ParkingDailyStatsId implements Serializable {
+
+    @Column(name = "parking_id")
+    private long parkingId;
+
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "fare_id")
+    private long fareId;
+}
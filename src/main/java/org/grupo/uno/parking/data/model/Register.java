@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class Register {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "register_seq")
+    @SequenceGenerator(name = "register_seq", sequenceName = "register_seq", allocationSize = 50)
     @Column(name = "register_id")
     private long registerId;
 
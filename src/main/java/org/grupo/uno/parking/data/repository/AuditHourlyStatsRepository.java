@@ -0,0 +1,40 @@
+package org.grupo.uno.parking.data.repository;
+
+import jakarta.persistence.QueryHint;
+import org.grupo.uno.parking.data.model.AuditHourlyStats;
+import org.grupo.uno.parking.data.model.AuditHourlyStatsId;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AuditHourlyStatsRepository extends JpaRepository<AuditHourlyStats, AuditHourlyStatsId> {
+
+    // Suma los contadores acumulados en memoria desde el último volcado
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "audit_hourly_stats"))
+    @Query(value = "INSERT INTO audit_hourly_stats (bucket, entity, operation, result, audit_count) " +
+            "VALUES (:bucket, :entity, :operation, :result, :count) " +
+            "ON CONFLICT (bucket, entity, operation, result) DO UPDATE SET " +
+            "audit_count = audit_hourly_stats.audit_count + EXCLUDED.audit_count", nativeQuery = true)
+    int upsert(@Param("bucket") LocalDateTime bucket, @Param("entity") String entity,
+               @Param("operation") String operation, @Param("result") String result, @Param("count") long count);
+
+    // period, entity, operation, result, count agrupados por hora o día; bucket ya viene truncado a la hora
+    @Query(value = "SELECT t.period, t.entity, t.operation, t.result, SUM(t.audit_count) FROM (" +
+            "SELECT CASE WHEN CAST(:unit AS varchar) = 'day' THEN CAST(CAST(s.bucket AS date) AS timestamp) " +
+            "ELSE s.bucket END AS period, s.entity, s.operation, s.result, s.audit_count " +
+            "FROM audit_hourly_stats s WHERE s.bucket >= :startDate AND s.bucket < :endDate " +
+            "AND (CAST(:entity AS varchar) IS NULL OR upper(s.entity) = upper(CAST(:entity AS varchar)))) t " +
+            "GROUP BY t.period, t.entity, t.operation, t.result " +
+            "ORDER BY t.period, t.entity, t.operation, t.result", nativeQuery = true)
+    List<Object[]> summarize(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+                             @Param("entity") String entity, @Param("unit") String unit);
+}
@@ -1,24 +1,63 @@
 package org.grupo.uno.parking.data.repository;
 
+import jakarta.persistence.QueryHint;
+import org.grupo.uno.parking.data.dto.AuditExportRow;
 import org.grupo.uno.parking.data.model.Audith;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AudithRepository extends JpaRepository<Audith, Long> {
+public interface AudithRepository extends JpaRepository<Audith, Long>, AudithSearchRepository {
 
     Page<Audith> findByEntity(String entity, Pageable pageable);
 
     Page<Audith> findByStartDateBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
+    Page<Audith> findByEntityIgnoreCaseAndStartDateBetween(String entity, LocalDateTime startDate, LocalDateTime endDate,
+                                                          Pageable pageable);
+
+    long countByStartDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    long countByEntityIgnoreCaseAndStartDateBetween(String entity, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Lotes del archivado, los más antiguos primero
+    List<Audith> findByStartDateBeforeOrderByStartDateAscAuditIdAsc(LocalDateTime cutoff, Pageable pageable);
+
+    long countByAuditIdIn(Collection<Long> auditIds);
+
     Page<Audith> findByEntityIgnoreCase(String entity, Pageable pageable);
 
     Optional<Audith> findById(Long id);
 
     Page<Audith> findByOperation(String operation, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.grupo.uno.parking.data.dto.AuditExportRow(a.auditId, a.entity, a.entityId, a.startDate, " +
+            "a.occurrences, a.lastDate, " +
+            "a.description, a.operation, a.result, a.request, a.response) " +
+            "FROM Audith a WHERE a.startDate BETWEEN :startDate AND :endDate ORDER BY a.startDate, a.auditId")
+    Stream<AuditExportRow> streamByStartDateBetween(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate);
+
+    // Historial de un registro concreto, recorre el índice (upper(entity), entity_id, start_date)
+    @Query(value = "SELECT * FROM audith a WHERE upper(a.entity) = upper(:entity) AND a.entity_id = :entityId " +
+            "ORDER BY a.start_date DESC, a.audit_id DESC",
+            countQuery = "SELECT COUNT(*) FROM audith a WHERE upper(a.entity) = upper(:entity) AND a.entity_id = :entityId",
+            nativeQuery = true)
+    Page<Audith> findHistory(@Param("entity") String entity, @Param("entityId") long entityId, Pageable pageable);
 }
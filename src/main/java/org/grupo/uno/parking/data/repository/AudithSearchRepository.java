@@ -0,0 +1,16 @@
+package org.grupo.uno.parking.data.repository;
+
+import org.grupo.uno.parking.data.model.Audith;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AudithSearchRepository {
+
+    /**
+     * Keyset search on (start_date, audit_id) descending. Every filter is optional;
+     * cursorDate null means the first page.
+     */
+    List<Audith> search(String entity, String operation, String result, LocalDateTime startDate,
+                        LocalDateTime endDate, String payload, LocalDateTime cursorDate, long cursorId, int limit);
+}
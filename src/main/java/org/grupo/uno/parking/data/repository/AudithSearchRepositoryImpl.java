@@ -0,0 +1,77 @@
+package org.grupo.uno.parking.data.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.grupo.uno.parking.data.model.Audith;
+import org.springframework.data.jpa.repository.JpaContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the search with only the filters that were given, so each combination is
+ * its own statement and Postgres plans it against the indexes it can actually use
+ * instead of a generic plan full of "IS NULL OR" branches.
+ */
+class AudithSearchRepositoryImpl implements AudithSearchRepository {
+
+    private final EntityManager entityManager;
+
+    AudithSearchRepositoryImpl(JpaContext jpaContext) {
+        // Audith vive en la unidad de persistencia de auditoría, no en la principal
+        this.entityManager = jpaContext.getEntityManagerByManagedType(Audith.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Audith> search(String entity, String operation, String result, LocalDateTime startDate,
+                               LocalDateTime endDate, String payload, LocalDateTime cursorDate, long cursorId,
+                               int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (entity != null) {
+            conditions.add("upper(a.entity) = upper(:entity)");
+            parameters.put("entity", entity);
+        }
+        if (operation != null) {
+            conditions.add("a.operation = :operation");
+            parameters.put("operation", operation);
+        }
+        if (result != null) {
+            conditions.add("a.result = :result");
+            parameters.put("result", result);
+        }
+        if (startDate != null) {
+            conditions.add("a.start_date >= :startDate");
+            parameters.put("startDate", startDate);
+        }
+        if (endDate != null) {
+            conditions.add("a.start_date <= :endDate");
+            parameters.put("endDate", endDate);
+        }
+        if (payload != null) {
+            // Usa los índices GIN jsonb_path_ops de request y response
+            conditions.add("(a.request @> CAST(:payload AS jsonb) OR a.response @> CAST(:payload AS jsonb))");
+            parameters.put("payload", payload);
+        }
+        if (cursorDate != null) {
+            conditions.add("(a.start_date, a.audit_id) < (:cursorDate, :cursorId)");
+            parameters.put("cursorDate", cursorDate);
+            parameters.put("cursorId", cursorId);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM audith a");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY a.start_date DESC, a.audit_id DESC");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Audith.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -1,10 +1,13 @@
 package org.grupo.uno.parking.data.repository;
 
+import jakarta.persistence.QueryHint;
 import org.grupo.uno.parking.data.model.Fare;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,9 +20,11 @@ public interface FareRepository extends JpaRepository<Fare, Long> {
 
     // Buscar tarifa por nombre
     @Query("SELECT f FROM Fare f WHERE f.name = :name")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Fare> findByName(String name);
 
     @Query("SELECT f FROM Fare f WHERE :duration BETWEEN f.startTime AND f.endTime")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Fare> findFareByDuration(@Param("duration") long duration);
 
 }
@@ -0,0 +1,64 @@
+package org.grupo.uno.parking.data.repository;
+
+import jakarta.persistence.QueryHint;
+import org.grupo.uno.parking.data.model.ParkingDailyStats;
+import org.grupo.uno.parking.data.model.ParkingDailyStatsId;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ParkingDailyStatsRepository extends JpaRepository<ParkingDailyStats, ParkingDailyStatsId> {
+
+    // Suma (o resta) la contribución de un registro al acumulado del día. Como las demás consultas
+    // nativas que modifican, declara su tabla: sin ella Hibernate vacía las cachés de parking y fare
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "parking_daily_stats"))
+    @Transactional
+    @Query(value = "INSERT INTO parking_daily_stats (parking_id, stat_date, fare_id, register_count, revenue, minutes) " +
+            "VALUES (:parkingId, :statDate, :fareId, :registerCount, :revenue, :minutes) " +
+            "ON CONFLICT (parking_id, stat_date, fare_id) DO UPDATE SET " +
+            "register_count = parking_daily_stats.register_count + EXCLUDED.register_count, " +
+            "revenue = parking_daily_stats.revenue + EXCLUDED.revenue, " +
+            "minutes = parking_daily_stats.minutes + EXCLUDED.minutes", nativeQuery = true)
+    int upsert(@Param("parkingId") long parkingId, @Param("statDate") LocalDate statDate, @Param("fareId") long fareId,
+               @Param("registerCount") long registerCount, @Param("revenue") BigDecimal revenue,
+               @Param("minutes") long minutes);
+
+    @Query("SELECT s FROM ParkingDailyStats s WHERE s.id.parkingId = :parkingId " +
+            "AND s.id.statDate BETWEEN :startDate AND :endDate ORDER BY s.id.statDate, s.id.fareId")
+    List<ParkingDailyStats> findByParkingAndDateRange(@Param("parkingId") long parkingId,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    // Recalcula desde register los días en [startDate, endDate); una salida que haga upsert
+    // entre el borrado y la inserción no rompe la clave, el recálculo la sobrescribe
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "parking_daily_stats"))
+    @Transactional
+    @Query(value = "DELETE FROM parking_daily_stats WHERE stat_date >= :startDate AND stat_date < :endDate", nativeQuery = true)
+    int deleteRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "parking_daily_stats"))
+    @Transactional
+    @Query(value = "INSERT INTO parking_daily_stats (parking_id, stat_date, fare_id, register_count, revenue, minutes) " +
+            "SELECT r.parking_id, CAST(r.end_date AS date), COALESCE(r.fare_id, 0), COUNT(*), COALESCE(SUM(r.total), 0), " +
+            "COALESCE(SUM(GREATEST(FLOOR(EXTRACT(EPOCH FROM (r.end_date - r.start_date)) / 60), 0)), 0) " +
+            "FROM register r WHERE r.parking_id IS NOT NULL AND r.end_date >= :startDate AND r.end_date < :endDate " +
+            "GROUP BY r.parking_id, CAST(r.end_date AS date), COALESCE(r.fare_id, 0) " +
+            "ON CONFLICT (parking_id, stat_date, fare_id) DO UPDATE SET " +
+            "register_count = EXCLUDED.register_count, revenue = EXCLUDED.revenue, minutes = EXCLUDED.minutes",
+            nativeQuery = true)
+    int rebuildRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+}
@@ -1,9 +1,13 @@
 package org.grupo.uno.parking.data.repository;
 
+import jakarta.persistence.QueryHint;
 import org.grupo.uno.parking.data.model.Parking;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +16,10 @@ import java.util.List;
 public interface ParkingRepository extends JpaRepository<Parking, Long> {
     Page<Parking> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Parking> findByStatus(boolean status);
+
+    // Capacidad y vehículos dentro de cada parqueo: [parkingId, spaces, activos]
+    @Query("SELECT p.parkingId, p.spaces, COUNT(r.registerId) FROM Parking p LEFT JOIN Register r ON r.parking = p AND r.endDate IS NULL GROUP BY p.parkingId, p.spaces")
+    List<Object[]> findOccupancySnapshot();
 }
@@ -1,14 +1,24 @@
 package org.grupo.uno.parking.data.repository;
 
+import jakarta.persistence.QueryHint;
+import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.model.Fare;
 import org.grupo.uno.parking.data.model.Register;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RegisterRepository extends JpaRepository<Register, Long> {
@@ -18,11 +28,44 @@ public interface RegisterRepository extends JpaRepository<Register, Long> {
     // Método para encontrar un registro por la placa
     Optional<Register> findByPlate(String plate);
 
+    long countByParking_ParkingIdAndEndDateIsNull(Long parkingId);
+
     @Query("SELECT r FROM Register r WHERE r.plate = :plate AND r.endDate IS NULL")
     Optional<Register> findActiveRegisterByPlate(@Param("plate") String plate);
 
+    @Query("SELECT r FROM Register r WHERE r.plate IN :plates AND r.endDate IS NULL")
+    List<Register> findActiveRegistersByPlateIn(@Param("plates") Collection<String> plates);
+
+    // Vehículos dentro de los parqueos: [registerId, plate, startDate, parkingId]
+    @Query("SELECT r.registerId, r.plate, r.startDate, r.parking.parkingId FROM Register r WHERE r.endDate IS NULL")
+    List<Object[]> findActiveSessions();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Register r SET r.endDate = :endDate, r.fare = :fare, r.total = :total, r.status = false " +
+            "WHERE r.registerId = :registerId AND r.endDate IS NULL")
+    int closeRegister(@Param("registerId") long registerId, @Param("endDate") LocalDateTime endDate,
+                      @Param("fare") Fare fare, @Param("total") BigDecimal total);
+
 
     // Método para buscar registros activos en un rango de fechas
     @Query("SELECT r FROM Register r WHERE r.parking.parkingId = :parkingId AND r.total > 0 AND r.endDate IS NOT NULL AND r.endDate BETWEEN :startDate AND :endDate")
     List<Register> findActiveRegistersByParkingIdAndDateRange(Long parkingId, LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Existe al menos un registro para el reporte
+    boolean existsByParking_ParkingIdAndTotalGreaterThanAndEndDateBetween(Long parkingId, BigDecimal total,
+                                                                          LocalDateTime startDate, LocalDateTime endDate);
+
+    // Mismo rango que el reporte, proyectado a DTO y leído con cursor
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.grupo.uno.parking.data.dto.RegisterDTO(r.registerId, r.plate, r.status, r.startDate, r.endDate, " +
+            "r.parking.parkingId, COALESCE(f.fareId, 0L), r.total) " +
+            "FROM Register r LEFT JOIN r.fare f WHERE r.parking.parkingId = :parkingId AND r.total > 0 " +
+            "AND r.endDate IS NOT NULL AND r.endDate BETWEEN :startDate AND :endDate ORDER BY r.endDate")
+    Stream<RegisterDTO> streamReportByParkingIdAndDateRange(@Param("parkingId") Long parkingId,
+                                                           @Param("startDate") LocalDateTime startDate,
+                                                           @Param("endDate") LocalDateTime endDate);
+}
@@ -0,0 +1,104 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.repository.RegisterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registers without end date, indexed by plate and partitioned per parking.
+ * A plate is reserved before its register is inserted, so two concurrent
+ * entries for the same plate cannot both succeed.
+ */
+@Service
+public class ActiveSessionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveSessionIndex.class);
+    private static final long PENDING = 0L;
+
+    public record ActiveSession(long registerId, String plate, LocalDateTime startDate, long parkingId) {
+        boolean isPending() {
+            return registerId == PENDING;
+        }
+    }
+
+    private final RegisterRepository registerRepository;
+    private final ConcurrentHashMap<String, ActiveSession> byPlate = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Map<String, ActiveSession>> byParking = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public ActiveSessionIndex(RegisterRepository registerRepository) {
+        this.registerRepository = registerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            List<Object[]> rows = registerRepository.findActiveSessions();
+            for (Object[] row : rows) {
+                ActiveSession session = new ActiveSession(((Number) row[0]).longValue(), (String) row[1],
+                        (LocalDateTime) row[2], ((Number) row[3]).longValue());
+                if (byPlate.putIfAbsent(session.plate(), session) == null) {
+                    partition(session.parkingId()).put(session.plate(), session);
+                }
+            }
+            loaded = true;
+            logger.info("Active session index loaded with {} vehicles", rows.size());
+        } catch (DataAccessException e) {
+            logger.warn("Could not load active session index, lookups will fall back to the database: {}", e.getMessage());
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Optional<ActiveSession> find(String plate) {
+        ActiveSession session = byPlate.get(plate);
+        return session == null || session.isPending() ? Optional.empty() : Optional.of(session);
+    }
+
+    public boolean reserve(String plate, long parkingId, LocalDateTime startDate) {
+        return byPlate.putIfAbsent(plate, new ActiveSession(PENDING, plate, startDate, parkingId)) == null;
+    }
+
+    public void cancel(String plate) {
+        byPlate.computeIfPresent(plate, (key, session) -> session.isPending() ? null : session);
+    }
+
+    public void activate(long registerId, String plate, LocalDateTime startDate, long parkingId) {
+        ActiveSession session = new ActiveSession(registerId, plate, startDate, parkingId);
+        byPlate.put(plate, session);
+        partition(parkingId).put(plate, session);
+    }
+
+    public void release(String plate, long registerId) {
+        ActiveSession session = byPlate.get(plate);
+        if (session != null && session.registerId() == registerId && byPlate.remove(plate, session)) {
+            Map<String, ActiveSession> sessions = byParking.get(session.parkingId());
+            if (sessions != null) {
+                sessions.remove(plate, session);
+            }
+        }
+    }
+
+    public Collection<ActiveSession> findByParking(long parkingId) {
+        Map<String, ActiveSession> sessions = byParking.get(parkingId);
+        return sessions == null ? Collections.emptyList() : Collections.unmodifiableCollection(sessions.values());
+    }
+
+    private Map<String, ActiveSession> partition(long parkingId) {
+        return byParking.computeIfAbsent(parkingId, id -> new ConcurrentHashMap<>());
+    }
+}
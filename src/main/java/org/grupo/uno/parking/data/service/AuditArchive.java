@@ -0,0 +1,523 @@
+package org.grupo.uno.parking.data.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves audits older than the retention period out of the audith table into one
+ * append-only file per day. A file is a sequence of gzip members (blocks) of NDJSON
+ * audits; its .idx file has one line per block with the offset, length, row count,
+ * first/last start date and the entities it contains, so a range read only
+ * decompresses the blocks that can match.
+ * <p>
+ * Each chunk writes an undo file with the audit IDs and the previous file sizes
+ * before appending, and removes it once the rows are deleted from the table. If a
+ * run dies in between, recovery keeps the blocks when the rows are gone and
+ * truncates them otherwise, so nothing is archived twice or lost.
+ */
+@Service
+public class AuditArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchive.class);
+    private static final String FILE_PREFIX = "audits-";
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String PENDING_FILE = "archive.pending";
+
+    record Block(long offset, int length, int rows, LocalDateTime first, LocalDateTime last, Set<String> entities) {
+
+        boolean overlaps(LocalDateTime startDate, LocalDateTime endDate) {
+            return !last.isBefore(startDate) && !first.isAfter(endDate);
+        }
+
+        boolean within(LocalDateTime startDate, LocalDateTime endDate) {
+            return !first.isBefore(startDate) && !last.isAfter(endDate);
+        }
+
+        String toLine() {
+            return offset + "," + length + "," + rows + "," + first + "," + last + "," + String.join("|", entities) + "\n";
+        }
+
+        static Block parse(String line) {
+            String[] fields = line.split(",", -1);
+            Set<String> entities = fields[5].isEmpty() ? Set.of() : Set.of(fields[5].split("\\|"));
+            return new Block(Long.parseLong(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    LocalDateTime.parse(fields[3]), LocalDateTime.parse(fields[4]), entities);
+        }
+    }
+
+    // IDs del lote en curso y tamaño previo de cada archivo que se va a ampliar
+    record Pending(List<Long> ids, Map<String, Long> sizes) {
+    }
+
+    private final AudithRepository audithRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final boolean enabled;
+    private final Path directory;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final int blockRows;
+    private final int maxChunks;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public AuditArchive(AudithRepository audithRepository,
+                        @Qualifier("auditTransactionTemplate") TransactionTemplate transactionTemplate,
+                        ObjectMapper objectMapper,
+                        @Value("${audit.archive.enabled:false}") boolean enabled,
+                        @Value("${audit.archive.directory:}") String directory,
+                        @Value("${audit.archive.retention-days:90}") int retentionDays,
+                        @Value("${audit.archive.chunk-size:1000}") int chunkSize,
+                        @Value("${audit.archive.block-rows:256}") int blockRows,
+                        @Value("${audit.archive.max-chunks:100}") int maxChunks) {
+        this.audithRepository = audithRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writerFor(Audith.class);
+        this.reader = objectMapper.readerFor(Audith.class);
+        this.enabled = enabled;
+        this.directory = enabled ? DurableDirectories.resolve("audit.archive.directory", directory) : Paths.get(directory);
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.blockRows = blockRows;
+        this.maxChunks = maxChunks;
+        if (enabled) {
+            try {
+                Files.createDirectories(this.directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear el directorio de archivo de auditorías " + directory, e);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${audit.archive.interval-ms:3600000}", initialDelayString = "${audit.archive.initial-delay-ms:60000}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            logger.error("Error archivando auditorías: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archives audits that started before today minus the retention period, in
+     * chunks of chunk-size rows with one transaction each. Returns how many were moved.
+     */
+    public synchronized long archive() {
+        if (!enabled) {
+            return 0;
+        }
+        recover();
+        LocalDateTime cutoff = getCutoff();
+        long archived = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Integer rows;
+            try {
+                rows = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            } catch (RuntimeException e) {
+                recover();
+                throw e;
+            }
+            deletePending();
+            archived += rows != null ? rows : 0;
+            if (rows == null || rows < chunkSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} audits older than {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Audits that started before this date may have been moved out of the table.
+     */
+    public LocalDateTime getCutoff() {
+        return LocalDate.now().minusDays(retentionDays).atStartOfDay();
+    }
+
+    /**
+     * Whether audits in a range starting at startDate (null meaning unbounded) may
+     * be in the archive rather than the table.
+     */
+    public boolean reaches(LocalDateTime startDate) {
+        return enabled && (startDate == null || startDate.isBefore(getCutoff()));
+    }
+
+    /**
+     * Archived audits in the range, oldest first. Blocks are decompressed one at a time
+     * as the stream is consumed; archiving waits until the stream is closed, so it must
+     * be closed by the thread that opened it.
+     */
+    public Stream<Audith> stream(LocalDateTime startDate, LocalDateTime endDate) {
+        if (!enabled) {
+            return Stream.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return indexFiles(startDate.toLocalDate(), endDate.toLocalDate()).stream()
+                    .flatMap(index -> readIndexUnchecked(index).stream()
+                            .filter(block -> block.overlaps(startDate, endDate))
+                            .flatMap(block -> readBlockUnchecked(dataFile(index), block).stream()))
+                    .filter(audit -> audit.getStartDate() != null
+                            && !audit.getStartDate().isBefore(startDate) && !audit.getStartDate().isAfter(endDate))
+                    .onClose(lock.readLock()::unlock);
+        } catch (IOException | RuntimeException e) {
+            lock.readLock().unlock();
+            throw e instanceof IOException io ? new UncheckedIOException("No se pudo leer el archivo de auditorías", io)
+                    : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Number of archived audits in the range, optionally of a single entity.
+     */
+    public long count(LocalDateTime startDate, LocalDateTime endDate, String entity) {
+        if (!enabled) {
+            return 0;
+        }
+        long[] count = {0};
+        scan(startDate, endDate, entity, block -> {
+            count[0] += block.rows();
+            return true;
+        }, audit -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Archived audits in the range, oldest first, skipping the first offset matches.
+     */
+    public List<Audith> read(LocalDateTime startDate, LocalDateTime endDate, String entity, long offset, int limit) {
+        List<Audith> audits = new ArrayList<>();
+        if (!enabled || limit <= 0) {
+            return audits;
+        }
+        long[] skip = {offset};
+        scan(startDate, endDate, entity, block -> {
+            if (block.rows() > skip[0]) {
+                return false;
+            }
+            skip[0] -= block.rows();
+            return true;
+        }, audit -> {
+            if (skip[0] > 0) {
+                skip[0]--;
+                return true;
+            }
+            audits.add(audit);
+            return audits.size() < limit;
+        });
+        return audits;
+    }
+
+    /**
+     * Visits the blocks that can hold audits in the range. Blocks entirely inside it
+     * (with no entity filter) go to wholeBlock first, which can take them without
+     * decompressing by returning true; the rest are read and every matching audit
+     * goes to each, which stops the scan by returning false.
+     */
+    private void scan(LocalDateTime startDate, LocalDateTime endDate, String entity,
+                      Predicate<Block> wholeBlock, Predicate<Audith> each) {
+        String entityKey = entity != null ? entityKey(entity) : null;
+        lock.readLock().lock();
+        try {
+            for (Path index : indexFiles(startDate.toLocalDate(), endDate.toLocalDate())) {
+                Path data = dataFile(index);
+                for (Block block : readIndex(index)) {
+                    if (!block.overlaps(startDate, endDate)
+                            || (entityKey != null && !block.entities().contains(entityKey))) {
+                        continue;
+                    }
+                    if (entityKey == null && block.within(startDate, endDate) && wholeBlock.test(block)) {
+                        continue;
+                    }
+                    for (Audith audit : readBlock(data, block)) {
+                        boolean matches = audit.getStartDate() != null
+                                && !audit.getStartDate().isBefore(startDate) && !audit.getStartDate().isAfter(endDate)
+                                && (entityKey == null || entityKey.equals(entityKey(audit.getEntity())));
+                        if (matches && !each.test(audit)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de auditorías", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Audith> audits = audithRepository.findByStartDateBeforeOrderByStartDateAscAuditIdAsc(cutoff,
+                PageRequest.of(0, chunkSize));
+        if (audits.isEmpty()) {
+            return 0;
+        }
+        Map<LocalDate, List<Audith>> byDay = new TreeMap<>();
+        for (Audith audit : audits) {
+            byDay.computeIfAbsent(audit.getStartDate().toLocalDate(), day -> new ArrayList<>()).add(audit);
+        }
+        List<Long> ids = audits.stream().map(Audith::getAuditId).toList();
+
+        lock.writeLock().lock();
+        try {
+            Map<String, Long> sizes = new LinkedHashMap<>();
+            for (LocalDate day : byDay.keySet()) {
+                sizes.put(dataName(day), sizeOf(directory.resolve(dataName(day))));
+                sizes.put(indexName(day), sizeOf(directory.resolve(indexName(day))));
+            }
+            writePending(new Pending(ids, sizes));
+            for (Map.Entry<LocalDate, List<Audith>> day : byDay.entrySet()) {
+                appendDay(day.getKey(), day.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el archivo de auditorías", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        audithRepository.deleteAllByIdInBatch(ids);
+        return audits.size();
+    }
+
+    private void appendDay(LocalDate day, List<Audith> audits) throws IOException {
+        StringBuilder index = new StringBuilder();
+        try (FileChannel data = FileChannel.open(directory.resolve(dataName(day)), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            for (int from = 0; from < audits.size(); from += blockRows) {
+                List<Audith> rows = audits.subList(from, Math.min(from + blockRows, audits.size()));
+                byte[] block = compress(rows);
+                long offset = data.size();
+                write(data, offset, block);
+                Set<String> entities = new LinkedHashSet<>();
+                rows.forEach(audit -> entities.add(entityKey(audit.getEntity())));
+                index.append(new Block(offset, block.length, rows.size(), rows.get(0).getStartDate(),
+                        rows.get(rows.size() - 1).getStartDate(), entities).toLine());
+            }
+            data.force(true);
+        }
+        // El índice se escribe después de los datos: una línea indexada siempre apunta a un bloque completo
+        try (FileChannel idx = FileChannel.open(directory.resolve(indexName(day)), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            write(idx, idx.size(), index.toString().getBytes(StandardCharsets.UTF_8));
+            idx.force(true);
+        }
+    }
+
+    private byte[] compress(List<Audith> audits) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            for (Audith audit : audits) {
+                gzip.write(writer.writeValueAsBytes(audit));
+                gzip.write('\n');
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private List<Audith> readBlock(Path data, Block block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+                    throw new IOException("Bloque incompleto en " + data.getFileName() + " en " + block.offset());
+                }
+            }
+        }
+        List<Audith> audits = new ArrayList<>(block.rows());
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    audits.add(reader.readValue(line));
+                }
+            }
+        }
+        return audits;
+    }
+
+    private List<Block> readIndexUnchecked(Path index) {
+        try {
+            return readIndex(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el índice " + index.getFileName(), e);
+        }
+    }
+
+    private List<Audith> readBlockUnchecked(Path data, Block block) {
+        try {
+            return readBlock(data, block);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo " + data.getFileName(), e);
+        }
+    }
+
+    private List<Block> readIndex(Path index) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                blocks.add(Block.parse(line));
+            }
+        }
+        return blocks;
+    }
+
+    private List<Path> indexFiles(LocalDate startDay, LocalDate endDay) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        String from = indexName(startDay);
+        String to = indexName(endDay);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(INDEX_SUFFIX)
+                                && name.compareTo(from) >= 0 && name.compareTo(to) <= 0;
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Finishes or undoes a chunk interrupted by a crash or a failed commit.
+     */
+    void recover() {
+        Path file = directory.resolve(PENDING_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Pending pending = objectMapper.readValue(file.toFile(), Pending.class);
+            long remaining = audithRepository.countByAuditIdIn(pending.ids());
+            if (remaining == 0) {
+                logger.info("Archive chunk of {} audits was committed, keeping it", pending.ids().size());
+            } else {
+                logger.warn("Archive chunk of {} audits was not committed ({} still in the table), undoing it",
+                        pending.ids().size(), remaining);
+                for (Map.Entry<String, Long> entry : pending.sizes().entrySet()) {
+                    truncate(directory.resolve(entry.getKey()), entry.getValue());
+                }
+            }
+            Files.delete(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo recuperar el archivo de auditorías", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writePending(Pending pending) throws IOException {
+        Path temp = directory.resolve(PENDING_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, 0, objectMapper.writeValueAsBytes(pending));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(PENDING_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deletePending() {
+        try {
+            Files.deleteIfExists(directory.resolve(PENDING_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo borrar " + PENDING_FILE, e);
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        if (size == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+
+    private static void write(FileChannel channel, long position, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static long sizeOf(Path file) throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    private static String entityKey(String entity) {
+        return entity == null ? "" : entity.toUpperCase(Locale.ROOT).replaceAll("[,|\\s]", "_");
+    }
+
+    private static String dataName(LocalDate day) {
+        return FILE_PREFIX + day + DATA_SUFFIX;
+    }
+
+    private static String indexName(LocalDate day) {
+        return FILE_PREFIX + day + INDEX_SUFFIX;
+    }
+
+    private Path dataFile(Path index) {
+        String name = index.getFileName().toString();
+        return directory.resolve(name.substring(0, name.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+    }
+}
@@ -0,0 +1,152 @@
+package org.grupo.uno.parking.data.service;
+
+import jakarta.annotation.PreDestroy;
+import org.grupo.uno.parking.data.model.Audith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merges identical audits (same entity, record, operation, description, result and
+ * payload) that arrive within a window. The first one is written right away, like any
+ * other audit; the repeats are only counted in memory and, when the window closes,
+ * written as one more row with their number and the dates of the first and last one.
+ * A crash can therefore lose at most the repeat count of the open windows, never the
+ * audit that opened them.
+ */
+@Service
+public class AuditCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditCoalescer.class);
+
+    private record Key(String entity, Long entityId, String operation, String description, String result,
+                       Map<String, Object> request, Map<String, Object> response) {
+        static Key of(Audith audit) {
+            return new Key(audit.getEntity(), audit.getEntityId(), audit.getOperation(), audit.getDescription(),
+                    audit.getResult(), audit.getRequest(), audit.getResponse());
+        }
+    }
+
+    private static final class Pending {
+        private final Audith audit;
+        private final long closesAt;
+        private long repeats;
+        private LocalDateTime firstRepeat;
+        private LocalDateTime lastRepeat;
+
+        private Pending(Audith audit, long closesAt) {
+            this.audit = audit;
+            this.closesAt = closesAt;
+        }
+    }
+
+    private final AuditWriter auditWriter;
+    private final AuditJournal auditJournal;
+    private final int maxPending;
+    private final ConcurrentHashMap<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    public AuditCoalescer(AuditWriter auditWriter, AuditJournal auditJournal,
+                          @Value("${audit.coalesce.max-pending:10000}") int maxPending) {
+        this.auditWriter = auditWriter;
+        this.auditJournal = auditJournal;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Returns true when the audit was counted as a repeat of an open window, false when
+     * it was written (it opened a new window, or too many are open to track another).
+     */
+    public boolean add(Audith audit, long windowSeconds) {
+        Key key = Key.of(audit);
+        long now = System.nanoTime();
+        Pending[] closed = new Pending[1];
+        Pending current = pending.compute(key, (k, existing) -> {
+            if (existing != null && now - existing.closesAt < 0) {
+                if (existing.repeats++ == 0) {
+                    existing.firstRepeat = audit.getStartDate();
+                }
+                existing.lastRepeat = audit.getStartDate();
+                return existing;
+            }
+            closed[0] = existing;
+            return new Pending(audit, now + Duration.ofSeconds(windowSeconds).toNanos());
+        });
+        if (closed[0] != null) {
+            storeRepeats(closed[0]);
+        }
+        if (current.audit != audit) {
+            return true;
+        }
+        store(audit);
+        // Sin ventana: las repeticiones se escriben una por una hasta que baje la cantidad pendiente
+        if (pending.size() > maxPending) {
+            pending.remove(key, current);
+        }
+        return false;
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${audit.coalesce.flush-interval-ms:1000}")
+    public void flush() {
+        drain(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drain(true);
+    }
+
+    private void drain(boolean all) {
+        long now = System.nanoTime();
+        List<Pending> closed = new ArrayList<>();
+        pending.forEach((key, window) -> {
+            if ((all || now - window.closesAt >= 0) && pending.remove(key, window)) {
+                closed.add(window);
+            }
+        });
+        closed.forEach(this::storeRepeats);
+        if (!closed.isEmpty()) {
+            logger.debug("Closed {} coalescing windows", closed.size());
+        }
+    }
+
+    private void storeRepeats(Pending window) {
+        if (window.repeats == 0) {
+            return;
+        }
+        Audith opening = window.audit;
+        Audith repeats = new Audith();
+        repeats.setEntity(opening.getEntity());
+        repeats.setEntityId(opening.getEntityId());
+        repeats.setDescription(opening.getDescription());
+        repeats.setOperation(opening.getOperation());
+        repeats.setResult(opening.getResult());
+        repeats.setRequest(opening.getRequest());
+        repeats.setResponse(opening.getResponse());
+        repeats.setStartDate(window.firstRepeat);
+        repeats.setOccurrences(window.repeats);
+        // Solo las filas agrupadas llevan fecha de la última ocurrencia
+        repeats.setLastDate(window.repeats > 1 ? window.lastRepeat : null);
+        store(repeats);
+    }
+
+    private void store(Audith audit) {
+        if (auditJournal.isEnabled()) {
+            auditJournal.append(audit);
+        } else {
+            auditWriter.enqueue(audit);
+        }
+    }
+}
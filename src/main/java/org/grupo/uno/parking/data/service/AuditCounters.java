@@ -0,0 +1,104 @@
+package org.grupo.uno.parking.data.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ValidationException;
+import org.grupo.uno.parking.data.dto.AuditStatsDTO;
+import org.grupo.uno.parking.data.dto.StatsGranularity;
+import org.grupo.uno.parking.data.repository.AuditHourlyStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hourly audit counts per entity, operation and result. Every audit request bumps
+ * an in-memory counter, including the ones the {@link AuditPolicy} does not store,
+ * and the counters are added to audit_hourly_stats every flush interval, so the
+ * dashboard lags by at most that long.
+ */
+@Service
+public class AuditCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditCounters.class);
+
+    private record Key(LocalDateTime bucket, String entity, String operation, String result) {
+    }
+
+    private final AuditHourlyStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxDays;
+    private final ConcurrentHashMap<Key, Long> counters = new ConcurrentHashMap<>();
+
+    public AuditCounters(AuditHourlyStatsRepository statsRepository,
+                         @Qualifier("auditTransactionTemplate") TransactionTemplate transactionTemplate,
+                         @Value("${audit.stats.max-days:400}") int maxDays) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxDays = maxDays;
+    }
+
+    public void increment(String entity, String operation, String result) {
+        Key key = new Key(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), entity, operation,
+                result != null ? result : "");
+        counters.merge(key, 1L, Long::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.stats.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        Map<Key, Long> drained = new HashMap<>();
+        for (Key key : counters.keySet()) {
+            // remove y merge son atómicos por clave: un incremento concurrente entra en este total o en uno nuevo
+            Long count = counters.remove(key);
+            if (count != null) {
+                drained.put(key, count);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> drained.forEach((key, count) ->
+                    statsRepository.upsert(key.bucket(), key.entity(), key.operation(), key.result(), count)));
+            logger.debug("Flushed {} audit counters", drained.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush {} audit counters, keeping them for the next flush: {}", drained.size(), e.getMessage());
+            drained.forEach((key, count) -> counters.merge(key, count, Long::sum));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Counts in [startDate, endDate], by hour or by day, optionally for one entity.
+     */
+    public List<AuditStatsDTO> getStats(LocalDate startDate, LocalDate endDate, String entity, StatsGranularity granularity) {
+        if (startDate.isAfter(endDate)) {
+            throw new ValidationException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxDays) {
+            throw new ValidationException("El rango no puede superar " + maxDays + " días.");
+        }
+        List<Object[]> rows = statsRepository.summarize(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(),
+                entity, granularity.name().toLowerCase(Locale.ROOT));
+        return rows.stream()
+                .map(row -> new AuditStatsDTO(((Timestamp) row[0]).toLocalDateTime(), (String) row[1], (String) row[2],
+                        (String) row[3], ((Number) row[4]).longValue()))
+                .toList();
+    }
+}
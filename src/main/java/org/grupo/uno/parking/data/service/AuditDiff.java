@@ -0,0 +1,54 @@
+package org.grupo.uno.parking.data.service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Field level changes between two flat snapshots of an entity. UPDATE and PATCH
+ * audits store the old values of the changed fields as the request and the new
+ * values as the response, instead of the whole entity twice.
+ */
+public final class AuditDiff {
+
+    public record Changes(Map<String, Object> before, Map<String, Object> after) {
+    }
+
+    private AuditDiff() {
+    }
+
+    /**
+     * Keeps the fields whose value changed, plus the given identifying keys.
+     */
+    public static Changes between(Map<String, Object> before, Map<String, Object> after, String... keys) {
+        Map<String, Object> oldValues = new LinkedHashMap<>();
+        Map<String, Object> newValues = new LinkedHashMap<>();
+        for (String key : keys) {
+            oldValues.put(key, before.get(key));
+            newValues.put(key, after.get(key));
+        }
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            String field = entry.getKey();
+            Object oldValue = before.get(field);
+            if (!newValues.containsKey(field) && !same(oldValue, entry.getValue())) {
+                oldValues.put(field, oldValue);
+                newValues.put(field, entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> entry : before.entrySet()) {
+            if (!after.containsKey(entry.getKey()) && !oldValues.containsKey(entry.getKey())) {
+                oldValues.put(entry.getKey(), entry.getValue());
+                newValues.put(entry.getKey(), null);
+            }
+        }
+        return new Changes(oldValues, newValues);
+    }
+
+    private static boolean same(Object oldValue, Object newValue) {
+        if (oldValue instanceof BigDecimal oldDecimal && newValue instanceof BigDecimal newDecimal) {
+            return oldDecimal.compareTo(newDecimal) == 0;
+        }
+        return Objects.equals(oldValue, newValue);
+    }
+}
@@ -0,0 +1,460 @@
+package org.grupo.uno.parking.data.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.grupo.uno.parking.data.dto.AuditJournalMetricsDTO;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local journal of audits made of memory-mapped segment files. Each record is
+ * [length][crc32][json]; an append is a copy into the mapping, so it survives a
+ * process crash without waiting for Postgres. A shipper thread saves the records
+ * in batches and persists the position it reached, so on startup it resumes
+ * from there. Delivery is at least once: a crash between a batch and its offset
+ * write ships that batch again. A record the database rejects for good (an
+ * integrity violation, or any non-transient error max-attempts times in a row)
+ * is appended to dead-letter.ndjson and skipped so it cannot block the rest.
+ */
+@Service
+public class AuditJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditJournal.class);
+    private static final int HEADER_BYTES = 8;
+    private static final int OFFSET_BYTES = 24;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OFFSET_FILE = "shipped.offset";
+    private static final String DEAD_LETTER_FILE = "dead-letter.ndjson";
+
+    private record Mark(long segment, int position) {
+    }
+
+    private final AudithRepository audithRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int batchSize;
+    private final long shipIntervalMs;
+    private final boolean fsync;
+    private final long shutdownTimeoutMs;
+    private final int maxAttempts;
+
+    // Writer side, guarded by this
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private volatile Mark writeMark;
+
+    // Shipper side, only touched by the shipper thread
+    private long shipSegment;
+    private int shipPosition;
+    private MappedByteBuffer shipBuffer;
+    private int attempts;
+
+    private final Thread shipper;
+    private volatile boolean running = true;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong shipped = new AtomicLong();
+    private final AtomicLong corrupt = new AtomicLong();
+    private final AtomicLong failedShipments = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private volatile long lastShipMillis;
+
+    public AuditJournal(AudithRepository audithRepository,
+                        ObjectMapper objectMapper,
+                        @Value("${audit.journal.enabled:true}") boolean enabled,
+                        @Value("${audit.journal.directory:}") String directory,
+                        @Value("${audit.journal.segment-bytes:16777216}") int segmentBytes,
+                        @Value("${audit.journal.batch-size:200}") int batchSize,
+                        @Value("${audit.journal.ship-interval-ms:200}") long shipIntervalMs,
+                        @Value("${audit.journal.fsync:false}") boolean fsync,
+                        @Value("${audit.journal.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                        @Value("${audit.journal.max-attempts:5}") int maxAttempts) {
+        this.audithRepository = audithRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        // The journal is the only copy of an audit until it ships
+        this.directory = enabled ? DurableDirectories.resolve("audit.journal.directory", directory) : Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.batchSize = batchSize;
+        this.shipIntervalMs = shipIntervalMs;
+        this.fsync = fsync;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        if (!enabled) {
+            this.shipper = null;
+            return;
+        }
+
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el journal de auditorías " + directory, e);
+        }
+        this.shipper = new Thread(this::shipLoop, "audit-shipper");
+        this.shipper.setDaemon(true);
+        this.shipper.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(Audith audit) {
+        if (!enabled) {
+            throw new IllegalStateException("Audit journal is disabled");
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(audit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo serializar la auditoría", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (this) {
+            try {
+                if (writeBuffer.remaining() < HEADER_BYTES + payload.length) {
+                    roll(HEADER_BYTES + payload.length);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear un segmento del journal de auditorías", e);
+            }
+            int position = writeBuffer.position();
+            // Payload first, length last: a torn write leaves a zero length or a bad checksum
+            writeBuffer.putInt(position + 4, (int) crc.getValue());
+            writeBuffer.put(position + HEADER_BYTES, payload);
+            writeBuffer.putInt(position, payload.length);
+            writeBuffer.position(position + HEADER_BYTES + payload.length);
+            if (fsync) {
+                writeBuffer.force(position, HEADER_BYTES + payload.length);
+            }
+            writeMark = new Mark(writeSegment, writeBuffer.position());
+        }
+        appended.incrementAndGet();
+    }
+
+    public AuditJournalMetricsDTO getMetrics() {
+        Mark mark = writeMark;
+        return new AuditJournalMetricsDTO(enabled, mark != null ? mark.segment() - shipSegment + 1 : 0,
+                appended.get(), shipped.get(), corrupt.get(), failedShipments.get(), deadLettered.get(), lastShipMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(shipper);
+        try {
+            shipper.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            writeBuffer.force();
+        }
+        if (shipper.isAlive()) {
+            logger.warn("Audit shipper did not finish in {} ms, the rest ships on next startup", shutdownTimeoutMs);
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        Mark offset = readOffset();
+        if (offset != null && !segments.contains(offset.segment())) {
+            offset = new Mark(offset.segment(), 0);
+        }
+        if (offset == null || (!segments.isEmpty() && offset.segment() < segments.get(0))) {
+            offset = new Mark(segments.isEmpty() ? 0 : segments.get(0), 0);
+        }
+        for (long segment : segments) {
+            if (segment < offset.segment()) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+
+        // Never append after a possibly torn tail, start a fresh segment instead
+        long last = segments.isEmpty() ? -1 : segments.get(segments.size() - 1);
+        writeSegment = Math.max(last + 1, offset.segment());
+        writeBuffer = map(writeSegment, segmentBytes, FileChannel.MapMode.READ_WRITE);
+        writeMark = new Mark(writeSegment, 0);
+
+        shipSegment = offset.segment();
+        shipPosition = offset.position();
+        long pending = segments.stream().filter(segment -> segment >= shipSegment).count();
+        if (pending > 0) {
+            logger.info("Audit journal has {} unshipped segments, replaying from segment {} position {}",
+                    pending, shipSegment, shipPosition);
+        }
+    }
+
+    private void roll(int needed) throws IOException {
+        writeBuffer.force();
+        writeSegment++;
+        writeBuffer = map(writeSegment, Math.max(segmentBytes, needed), FileChannel.MapMode.READ_WRITE);
+        writeMark = new Mark(writeSegment, 0);
+    }
+
+    private void shipLoop() {
+        while (running) {
+            if (shipBatch() == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(shipIntervalMs));
+            }
+        }
+        // Drain what is left; stops at the first failed batch
+        while (shipBatch() > 0) {
+            logger.debug("Shipping remaining audits before shutdown");
+        }
+    }
+
+    private int shipBatch() {
+        Mark mark = writeMark;
+        List<Audith> batch = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        int position = shipPosition;
+        boolean segmentDone = false;
+        try {
+            if (shipBuffer == null) {
+                if (shipSegment < mark.segment() && !Files.exists(segmentPath(shipSegment))) {
+                    nextSegment();
+                    return 1;
+                }
+                shipBuffer = map(shipSegment, 0, FileChannel.MapMode.READ_ONLY);
+            }
+            while (batch.size() < batchSize && (shipSegment < mark.segment() || position < mark.position())) {
+                byte[] payload = read(shipBuffer, position);
+                if (payload == null) {
+                    // Older segments end at the first empty or damaged record
+                    segmentDone = shipSegment < mark.segment();
+                    break;
+                }
+                position += HEADER_BYTES + payload.length;
+                try {
+                    batch.add(objectMapper.readValue(payload, Audith.class));
+                    ends.add(position);
+                } catch (IOException e) {
+                    corrupt.incrementAndGet();
+                    logger.error("Skipping unreadable audit in segment {}: {}", shipSegment, e.getMessage());
+                }
+            }
+            if (position == shipPosition && !segmentDone) {
+                return 0;
+            }
+
+            long start = System.currentTimeMillis();
+            if (!batch.isEmpty()) {
+                try {
+                    audithRepository.saveAll(batch);
+                    attempts = 0;
+                    shipped.addAndGet(batch.size());
+                } catch (RuntimeException e) {
+                    if (isTransient(e)) {
+                        throw e;
+                    }
+                    int done = shipOneByOne(batch);
+                    if (done < batch.size()) {
+                        if (done > 0) {
+                            shipPosition = ends.get(done - 1);
+                            writeOffset(new Mark(shipSegment, shipPosition));
+                        }
+                        throw e;
+                    }
+                }
+            }
+            shipPosition = position;
+            if (segmentDone) {
+                nextSegment();
+            } else {
+                writeOffset(new Mark(shipSegment, shipPosition));
+            }
+            lastShipMillis = System.currentTimeMillis() - start;
+            return Math.max(batch.size(), 1);
+        } catch (IOException | RuntimeException e) {
+            failedShipments.incrementAndGet();
+            logger.warn("Could not ship {} audits from the journal, retrying later: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Saves the batch record by record after the database rejected it as a whole.
+     * Stops at the first record that may still go through on a later attempt and
+     * returns how many records are settled, saved or dead-lettered.
+     */
+    private int shipOneByOne(List<Audith> batch) throws IOException {
+        // The failed saveAll may have assigned ids that were rolled back
+        batch.forEach(audit -> audit.setAuditId(0));
+        for (int i = 0; i < batch.size(); i++) {
+            Audith audit = batch.get(i);
+            try {
+                audithRepository.save(audit);
+                shipped.incrementAndGet();
+            } catch (RuntimeException e) {
+                if (isTransient(e) || (!(e instanceof DataIntegrityViolationException) && ++attempts < maxAttempts)) {
+                    return i;
+                }
+                deadLetter(audit, e);
+            }
+            attempts = 0;
+        }
+        return batch.size();
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private void deadLetter(Audith audit, RuntimeException cause) throws IOException {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("error", String.valueOf(cause.getMessage()));
+        line.set("audit", objectMapper.valueToTree(audit));
+        ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8));
+        // Durable before the offset moves past the record
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        deadLettered.incrementAndGet();
+        logger.error("Audit rejected by the database moved to {}: {}", DEAD_LETTER_FILE, cause.getMessage());
+    }
+
+    private void nextSegment() throws IOException {
+        long finished = shipSegment;
+        shipSegment++;
+        shipPosition = 0;
+        shipBuffer = null;
+        writeOffset(new Mark(shipSegment, 0));
+        Files.deleteIfExists(segmentPath(finished));
+    }
+
+    private byte[] read(ByteBuffer buffer, int position) {
+        if (position + HEADER_BYTES > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+            corrupt.incrementAndGet();
+            logger.warn("Invalid audit record length {} at segment {} position {}", length, shipSegment, position);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER_BYTES, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+            corrupt.incrementAndGet();
+            logger.warn("Checksum mismatch at segment {} position {}, skipping rest of segment", shipSegment, position);
+            return null;
+        }
+        return payload;
+    }
+
+    private MappedByteBuffer map(long segment, int size, FileChannel.MapMode mode) throws IOException {
+        Path path = segmentPath(segment);
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Mark readOffset() throws IOException {
+        Path file = directory.resolve(OFFSET_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.capacity() != OFFSET_BYTES) {
+            logger.warn("Ignoring invalid audit journal offset file, replaying all segments");
+            return null;
+        }
+        long segment = buffer.getLong();
+        long position = buffer.getLong();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 16);
+        if (crc.getValue() != buffer.getLong()) {
+            logger.warn("Ignoring corrupt audit journal offset file, replaying all segments");
+            return null;
+        }
+        return new Mark(segment, (int) position);
+    }
+
+    private void writeOffset(Mark mark) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(OFFSET_BYTES);
+        buffer.putLong(mark.segment()).putLong(mark.position());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 16);
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path temp = directory.resolve(OFFSET_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,141 @@
+package org.grupo.uno.parking.data.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders audit request/response values as strings within a fixed budget: each
+ * value gets at most max-value-length characters and the whole audit at most
+ * max-length. Values are written through a bounded writer that aborts the
+ * serialization once its budget is spent, so a report with thousands of rows
+ * costs the same as a small one.
+ */
+@Service
+public class AuditPayloadLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPayloadLimiter.class);
+
+    private final ObjectWriter writer;
+    private final int maxValueLength;
+    private final int maxLength;
+
+    public AuditPayloadLimiter(ObjectMapper objectMapper,
+                               @Value("${audit.payload.max-value-length:255}") int maxValueLength,
+                               @Value("${audit.payload.max-length:4096}") int maxLength) {
+        this.writer = objectMapper.writer();
+        this.maxValueLength = maxValueLength;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Budget shared by the request and response of a single audit.
+     */
+    public Budget newBudget() {
+        return new Budget(maxLength);
+    }
+
+    public Map<String, Object> limit(Map<String, Object> map, Budget budget) {
+        if (map == null || map.isEmpty()) {
+            return map;
+        }
+        Map<String, Object> limited = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            int allowed = Math.min(maxValueLength, budget.remaining);
+            String value = render(entry.getValue(), allowed);
+            if (value.length() > allowed) {
+                logger.warn("Truncating audit value {} to {} characters", entry.getKey(), allowed);
+                value = value.substring(0, allowed);
+            }
+            budget.remaining -= value.length();
+            limited.put(entry.getKey(), value);
+        }
+        return limited;
+    }
+
+    /**
+     * Returns at most limit + 1 characters, enough to tell that the value was cut.
+     */
+    private String render(Object value, int limit) {
+        if (value == null || value instanceof CharSequence || value instanceof Number
+                || value instanceof Boolean || value instanceof Enum<?>) {
+            String text = String.valueOf(value);
+            return text.length() > limit ? text.substring(0, limit + 1) : text;
+        }
+        BoundedWriter bounded = new BoundedWriter(limit + 1);
+        try {
+            writer.writeValue(bounded, value);
+        } catch (IOException e) {
+            if (!bounded.isFull()) {
+                logger.warn("Audit value of type {} cannot be serialized: {}", value.getClass().getSimpleName(), e.getMessage());
+                return String.valueOf(value.getClass().getSimpleName());
+            }
+        }
+        return bounded.toString();
+    }
+
+    public static final class Budget {
+        private int remaining;
+
+        private Budget(int remaining) {
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * Keeps the first capacity characters and then refuses any more output.
+     */
+    static final class BoundedWriter extends Writer {
+
+        private final StringBuilder buffer;
+        private final int capacity;
+
+        BoundedWriter(int capacity) {
+            this.capacity = capacity;
+            this.buffer = new StringBuilder(Math.min(capacity, 1024));
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int free = capacity - buffer.length();
+            buffer.append(chars, offset, Math.min(free, length));
+            if (length > free) {
+                throw new IOException("Audit value budget of " + capacity + " characters exceeded");
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            int free = capacity - buffer.length();
+            buffer.append(text, offset, offset + Math.min(free, length));
+            if (length > free) {
+                throw new IOException("Audit value budget of " + capacity + " characters exceeded");
+            }
+        }
+
+        boolean isFull() {
+            return buffer.length() >= capacity;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+}
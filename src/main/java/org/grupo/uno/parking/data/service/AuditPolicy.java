@@ -0,0 +1,153 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.dto.AuditMode;
+import org.grupo.uno.parking.data.dto.AuditPolicyDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether an audit is written, per entity and operation. Rules are looked
+ * up as entity:operation, entity:*, *:operation and then the default, and can be
+ * replaced at runtime. Coalesced audits are handed to the {@link AuditCoalescer}
+ * with the rule's window.
+ */
+@Service
+public class AuditPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPolicy.class);
+    private static final String ANY = "*";
+
+    public record Decision(boolean record, long windowSeconds) {
+        static final Decision SKIP = new Decision(false, 0);
+        static final Decision RECORD = new Decision(true, 0);
+    }
+
+    private record Rule(AuditMode mode, int samplePercent, long windowSeconds, AtomicLong recorded, AtomicLong skipped) {
+        Rule(AuditMode mode, int samplePercent, long windowSeconds) {
+            this(mode, samplePercent, windowSeconds, new AtomicLong(), new AtomicLong());
+        }
+    }
+
+    private final Rule defaultRule;
+    private final ConcurrentHashMap<String, Rule> rules = new ConcurrentHashMap<>();
+
+    public AuditPolicy(@Value("${audit.policy.default:ALWAYS}") AuditMode defaultMode,
+                       @Value("${audit.policy.rules:}") String rules) {
+        this.defaultRule = new Rule(defaultMode, 100, 0);
+        if (StringUtils.hasText(rules)) {
+            for (String rule : rules.split(",")) {
+                parseRule(rule.trim());
+            }
+        }
+    }
+
+    public Decision decide(String entity, String operation) {
+        Rule rule = ruleFor(entity, operation);
+        Decision decision = switch (rule.mode()) {
+            case ALWAYS -> Decision.RECORD;
+            case OFF -> Decision.SKIP;
+            case SAMPLED -> ThreadLocalRandom.current().nextInt(100) < rule.samplePercent() ? Decision.RECORD : Decision.SKIP;
+            case COALESCED -> new Decision(true, rule.windowSeconds());
+        };
+        (decision.record() ? rule.recorded() : rule.skipped()).incrementAndGet();
+        return decision;
+    }
+
+    public List<AuditPolicyDTO> getRules() {
+        List<AuditPolicyDTO> result = new ArrayList<>(rules.entrySet().stream()
+                .map(entry -> toDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(AuditPolicyDTO::getEntity).thenComparing(AuditPolicyDTO::getOperation))
+                .toList());
+        result.add(toDTO(key(ANY, ANY), defaultRule));
+        return result;
+    }
+
+    public AuditPolicyDTO setRule(AuditPolicyDTO policy) {
+        if (!StringUtils.hasText(policy.getEntity()) || !StringUtils.hasText(policy.getOperation()) || policy.getMode() == null) {
+            throw new IllegalArgumentException("Entity, operation and mode are required");
+        }
+        if (ANY.equals(policy.getEntity()) && ANY.equals(policy.getOperation())) {
+            throw new IllegalArgumentException("The default policy is set with audit.policy.default");
+        }
+        Rule rule = newRule(policy.getMode(), policy.getSamplePercent(), policy.getWindowSeconds());
+        String key = key(policy.getEntity(), policy.getOperation());
+        rules.put(key, rule);
+        logger.info("Audit policy for {} set to {}", key, policy.getMode());
+        return toDTO(key, rule);
+    }
+
+    public boolean removeRule(String entity, String operation) {
+        String key = key(entity, operation);
+        boolean removed = rules.remove(key) != null;
+        if (removed) {
+            logger.info("Audit policy for {} removed", key);
+        }
+        return removed;
+    }
+
+    private Rule ruleFor(String entity, String operation) {
+        Rule rule = rules.get(key(entity, operation));
+        if (rule == null) {
+            rule = rules.get(key(entity, ANY));
+        }
+        if (rule == null) {
+            rule = rules.get(key(ANY, operation));
+        }
+        return rule != null ? rule : defaultRule;
+    }
+
+    private void parseRule(String rule) {
+        // entity:operation=MODE[:param]
+        String[] parts = rule.split("=");
+        String[] target = parts[0].split(":");
+        if (parts.length != 2 || target.length != 2) {
+            throw new IllegalArgumentException("Invalid audit policy rule: " + rule);
+        }
+        String[] mode = parts[1].split(":");
+        AuditMode auditMode = AuditMode.valueOf(mode[0].trim().toUpperCase(Locale.ROOT));
+        Long param = mode.length > 1 ? Long.valueOf(mode[1].trim()) : null;
+        rules.put(key(target[0].trim(), target[1].trim()), newRule(auditMode,
+                param != null ? param.intValue() : null, param));
+    }
+
+    private static Rule newRule(AuditMode mode, Integer samplePercent, Long windowSeconds) {
+        return switch (mode) {
+            case SAMPLED -> {
+                if (samplePercent == null || samplePercent < 0 || samplePercent > 100) {
+                    throw new IllegalArgumentException("Sampled policies need a samplePercent between 0 and 100");
+                }
+                yield new Rule(mode, samplePercent, 0);
+            }
+            case COALESCED -> {
+                if (windowSeconds == null || windowSeconds <= 0) {
+                    throw new IllegalArgumentException("Coalesced policies need a positive windowSeconds");
+                }
+                yield new Rule(mode, 100, windowSeconds);
+            }
+            default -> new Rule(mode, 100, 0);
+        };
+    }
+
+    private static String key(String entity, String operation) {
+        return entity.toUpperCase(Locale.ROOT) + ":" + operation.toUpperCase(Locale.ROOT);
+    }
+
+    private static AuditPolicyDTO toDTO(String key, Rule rule) {
+        String[] target = key.split(":");
+        return new AuditPolicyDTO(target[0], target[1], rule.mode(),
+                rule.mode() == AuditMode.SAMPLED ? rule.samplePercent() : null,
+                rule.mode() == AuditMode.COALESCED ? rule.windowSeconds() : null,
+                rule.recorded().get(), rule.skipped().get());
+    }
+}
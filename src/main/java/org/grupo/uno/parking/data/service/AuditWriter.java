@@ -0,0 +1,315 @@
+package org.grupo.uno.parking.data.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.grupo.uno.parking.data.dto.AuditWriterMetricsDTO;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audits from a background thread so callers only pay for an enqueue.
+ * The flusher saves a batch once it reaches the batch size or the flush interval
+ * elapses, and drains whatever is left when the context shuts down.
+ * What happens when the queue is full depends on the backpressure mode.
+ */
+@Service
+public class AuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditWriter.class);
+    private static final Set<String> READ_OPERATIONS = Set.of("READ", "GET", "REPORT");
+    private static final String SPILL_FILE = "audit-spill.ndjson";
+    private static final String REPLAY_SUFFIX = ".replay";
+    // Wakes the flusher on shutdown, never written
+    private static final Audith STOP = new Audith();
+
+    public enum Backpressure {
+        /** Waits for room up to the block timeout, then drops. */
+        BLOCK,
+        /** Drops read audits right away and evicts a queued read to make room for a write. */
+        DROP_READS_FIRST,
+        /** Appends to a file that the flusher replays once the queue is idle. */
+        SPILL
+    }
+
+    private final AudithRepository audithRepository;
+    private final ObjectMapper objectMapper;
+    private final ArrayBlockingQueue<Audith> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long blockTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final Backpressure backpressure;
+    private final Path spillDirectory;
+    private final Object spillLock = new Object();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong droppedReads = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    public AuditWriter(AudithRepository audithRepository,
+                       ObjectMapper objectMapper,
+                       @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                       @Value("${audit.writer.batch-size:100}") int batchSize,
+                       @Value("${audit.writer.flush-interval-ms:200}") long flushIntervalMs,
+                       @Value("${audit.writer.block-timeout-ms:1000}") long blockTimeoutMs,
+                       @Value("${audit.writer.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                       @Value("${audit.writer.backpressure:BLOCK}") Backpressure backpressure,
+                       @Value("${audit.writer.spill-directory:${java.io.tmpdir}/parking-audit-spill}") String spillDirectory) {
+        this.audithRepository = audithRepository;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.backpressure = backpressure;
+        this.spillDirectory = Paths.get(spillDirectory);
+        if (backpressure == Backpressure.SPILL) {
+            try {
+                Files.createDirectories(this.spillDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear el directorio de auditorías pendientes " + spillDirectory, e);
+            }
+        }
+
+        this.flusher = new Thread(this::flushLoop, "audit-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void enqueue(Audith audit) {
+        if (queue.offer(audit)) {
+            enqueued.incrementAndGet();
+            return;
+        }
+
+        switch (backpressure) {
+            case SPILL -> spill(List.of(audit));
+            case DROP_READS_FIRST -> {
+                if (isRead(audit)) {
+                    droppedReads.incrementAndGet();
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if (evictQueuedRead() && queue.offer(audit)) {
+                    enqueued.incrementAndGet();
+                    return;
+                }
+                offerWithTimeout(audit);
+            }
+            default -> offerWithTimeout(audit);
+        }
+    }
+
+    public AuditWriterMetricsDTO getMetrics() {
+        return new AuditWriterMetricsDTO(backpressure.name(), queue.size(), queue.size() + queue.remainingCapacity(),
+                enqueued.get(), written.get(), dropped.get(), droppedReads.get(), spilled.get(), failed.get(),
+                batches.get(), lastFlushMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        queue.offer(STOP);
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            logger.warn("Audit writer did not drain in {} ms, {} audits still queued", shutdownTimeoutMs, queue.size());
+        } else {
+            logger.info("Audit writer drained, {} audits written", written.get());
+        }
+    }
+
+    private void offerWithTimeout(Audith audit) {
+        try {
+            if (queue.offer(audit, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                enqueued.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.incrementAndGet();
+        logger.warn("Audit queue full, dropping audit for entity: {}, operation: {}", audit.getEntity(), audit.getOperation());
+    }
+
+    private boolean evictQueuedRead() {
+        Iterator<Audith> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (isRead(iterator.next())) {
+                iterator.remove();
+                droppedReads.incrementAndGet();
+                dropped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRead(Audith audit) {
+        return audit.getOperation() != null && READ_OPERATIONS.contains(audit.getOperation().toUpperCase());
+    }
+
+    private void flushLoop() {
+        List<Audith> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Audith first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == STOP) {
+                    continue;
+                }
+                if (first == null) {
+                    if (backpressure == Backpressure.SPILL) {
+                        replaySpill();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            batch.removeIf(audit -> audit == STOP);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void fillBatch(List<Audith> batch, long deadline) throws InterruptedException {
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            Audith next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Audith> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            audithRepository.saveAll(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            lastFlushMillis = System.currentTimeMillis() - start;
+        } catch (RuntimeException e) {
+            if (backpressure == Backpressure.SPILL) {
+                logger.warn("Audit batch of {} failed, spilling to disk: {}", batch.size(), e.getMessage());
+                batch.forEach(audit -> audit.setAuditId(0));
+                spill(batch);
+            } else {
+                failed.addAndGet(batch.size());
+                logger.error("Audit batch of {} could not be written: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void spill(List<Audith> audits) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillDirectory.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Audith audit : audits) {
+                    writer.write(objectMapper.writeValueAsString(audit));
+                    writer.newLine();
+                }
+                spilled.addAndGet(audits.size());
+            } catch (IOException e) {
+                dropped.addAndGet(audits.size());
+                logger.error("Could not spill {} audits: {}", audits.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replays spilled audits once the queue is idle. A file is deleted only after
+     * all its batches are saved, so a failure part way may write some audits twice.
+     */
+    private void replaySpill() {
+        Path active = spillDirectory.resolve(SPILL_FILE);
+        try {
+            synchronized (spillLock) {
+                if (Files.exists(active)) {
+                    Files.move(active, spillDirectory.resolve("audit-spill-" + System.nanoTime() + REPLAY_SUFFIX),
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, "*" + REPLAY_SUFFIX)) {
+                for (Path file : files) {
+                    replayFile(file);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not replay spilled audits: {}", e.getMessage());
+        }
+    }
+
+    private void replayFile(Path file) throws IOException {
+        List<Audith> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    batch.add(objectMapper.readValue(line, Audith.class));
+                }
+                if (batch.size() == batchSize) {
+                    replayBatch(batch);
+                }
+            }
+        }
+        replayBatch(batch);
+        Files.delete(file);
+        logger.info("Replayed spilled audits from {}", file.getFileName());
+    }
+
+    private void replayBatch(List<Audith> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        audithRepository.saveAll(batch);
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        batch.clear();
+    }
+}
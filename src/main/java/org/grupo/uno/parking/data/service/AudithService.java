@@ -1,51 +1,127 @@
 package org.grupo.uno.parking.data.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.validation.ValidationException;
+import org.grupo.uno.parking.data.configuration.AuditDataSourceConfig;
+import org.grupo.uno.parking.data.dto.AuditExportFormat;
+import org.grupo.uno.parking.data.dto.AuditExportRow;
+import org.grupo.uno.parking.data.dto.AuditJournalMetricsDTO;
+import org.grupo.uno.parking.data.dto.AuditPolicyDTO;
+import org.grupo.uno.parking.data.dto.AuditSearchRequest;
+import org.grupo.uno.parking.data.dto.AuditSearchResultDTO;
+import org.grupo.uno.parking.data.dto.AuditStatsDTO;
+import org.grupo.uno.parking.data.dto.AuditWriterMetricsDTO;
 import org.grupo.uno.parking.data.dto.AudithDTO;
+import org.grupo.uno.parking.data.dto.StatsGranularity;
 import org.grupo.uno.parking.data.model.Audith;
 import org.grupo.uno.parking.data.repository.AudithRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class AudithService implements IAudithService {
 
     private static final Logger logger = LoggerFactory.getLogger(AudithService.class);
     private static final int MAX_LENGTH = 255;
+    private static final int DEFAULT_SEARCH_SIZE = 50;
+    private static final int MAX_SEARCH_SIZE = 500;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    private static final Sort DATE_ORDER = Sort.by("startDate", "auditId");
+    private static final String CSV_HEADER = "audit_id,entity,entity_id,start_date,occurrences,last_date,description,operation,result,request,response\n";
 
     private final AudithRepository audithRepository;
+    private final AuditWriter auditWriter;
+    private final AuditJournal auditJournal;
+    private final AuditPolicy auditPolicy;
+    private final AuditPayloadLimiter auditPayloadLimiter;
+    private final AuditArchive auditArchive;
+    private final AuditCounters auditCounters;
+    private final AuditCoalescer auditCoalescer;
+    private final ObjectWriter exportWriter;
 
     @Autowired
-    public AudithService(AudithRepository audithRepository) {
+    public AudithService(AudithRepository audithRepository, AuditWriter auditWriter, AuditJournal auditJournal,
+                         AuditPolicy auditPolicy, AuditPayloadLimiter auditPayloadLimiter, AuditArchive auditArchive,
+                         AuditCounters auditCounters, AuditCoalescer auditCoalescer, ObjectMapper objectMapper) {
         this.audithRepository = audithRepository;
+        this.auditWriter = auditWriter;
+        this.auditJournal = auditJournal;
+        this.auditPolicy = auditPolicy;
+        this.auditPayloadLimiter = auditPayloadLimiter;
+        this.auditArchive = auditArchive;
+        this.auditCounters = auditCounters;
+        this.auditCoalescer = auditCoalescer;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    /**
+     * Validates the audit and appends it to the {@link AuditJournal}, or queues it in
+     * the {@link AuditWriter} when the journal is disabled. Either way it is inserted
+     * later, so the returned audit has no ID yet. Returns null when the
+     * {@link AuditPolicy} skips it or the {@link AuditCoalescer} counts it as a
+     * repeat of an open window.
+     */
     @Override
     public Audith createAudit(String entity, String description, String operation,
                               Map<String, Object> request, Map<String, Object> response, String result) {
+        return createAudit(entity, null, description, operation, request, response, result);
+    }
+
+    /**
+     * Same as above for audits about a single record; entityId is stored in its own
+     * indexed column so {@link #getEntityHistory} can find them.
+     */
+    @Override
+    public Audith createAudit(String entity, Long entityId, String description, String operation,
+                              Map<String, Object> request, Map<String, Object> response, String result) {
         validateAuditParameters(entity, description, operation);
+        auditCounters.increment(entity, operation, truncateIfNecessary(result));
+        AuditPolicy.Decision decision = auditPolicy.decide(entity, operation);
+        if (!decision.record()) {
+            logger.debug("Audit skipped by policy for entity: {}, operation: {}", entity, operation);
+            return null;
+        }
         logger.info("Creating audit for entity: {}, operation: {}", entity, operation);
-
         description = truncateIfNecessary(description);
-        request = truncateMapValuesIfNecessary(request);
-        response = truncateMapValuesIfNecessary(response);
+        AuditPayloadLimiter.Budget budget = auditPayloadLimiter.newBudget();
+        request = auditPayloadLimiter.limit(request, budget);
+        response = auditPayloadLimiter.limit(response, budget);
         result = truncateIfNecessary(result);
 
         Audith audit = new Audith();
         audit.setEntity(entity);
+        audit.setEntityId(entityId);
         audit.setStartDate(LocalDateTime.now());
         audit.setDescription(description);
         audit.setOperation(operation);
@@ -53,9 +129,15 @@ public class AudithService implements IAudithService {
         audit.setResponse(response);
         audit.setResult(result);
 
-        Audith savedAudit = audithRepository.save(audit);
-        logger.info("Audit created successfully with ID: {}", savedAudit.getAuditId());
-        return savedAudit;
+        if (decision.windowSeconds() > 0) {
+            return auditCoalescer.add(audit, decision.windowSeconds()) ? null : audit;
+        }
+        if (auditJournal.isEnabled()) {
+            auditJournal.append(audit);
+        } else {
+            auditWriter.enqueue(audit);
+        }
+        return audit;
     }
 
     @Override
@@ -102,19 +184,170 @@ public class AudithService implements IAudithService {
 
     @Override
     public Page<Audith> getAuditsByDateRange(LocalDateTime startDate, LocalDateTime endDate, int page, int size) {
-        if (startDate == null || endDate == null) {
-            logger.error("Start date or end date is null.");
-            throw new ValidationException("Las fechas de inicio y fin no pueden estar vacías.");
+        return getAuditsByDateRange(startDate, endDate, null, page, size);
+    }
+
+    /**
+     * Archived audits come first (they are the oldest), followed by the ones still in
+     * the table ordered by start date. Pages that straddle both are stitched together.
+     */
+    @Override
+    public Page<Audith> getAuditsByDateRange(LocalDateTime startDate, LocalDateTime endDate, String entity, int page, int size) {
+        validateDateRange(startDate, endDate);
+        String entityFilter = textOrNull(entity);
+
+        logger.info("Fetching audits between {} and {} - Page: {}, Size: {}", startDate, endDate, page, size);
+        Pageable pageable = PageRequest.of(page, size, DATE_ORDER);
+        long archived = auditArchive.count(startDate, endDate, entityFilter);
+        if (archived == 0) {
+            return findLive(startDate, endDate, entityFilter, pageable);
         }
 
-        if (startDate.isAfter(endDate)) {
-            logger.error("Start date {} cannot be after end date {}", startDate, endDate);
-            throw new ValidationException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        long offset = pageable.getOffset();
+        List<Audith> content = new ArrayList<>(auditArchive.read(startDate, endDate, entityFilter, offset, size));
+        if (content.size() == size) {
+            long live = entityFilter != null
+                    ? audithRepository.countByEntityIgnoreCaseAndStartDateBetween(entityFilter, startDate, endDate)
+                    : audithRepository.countByStartDateBetween(startDate, endDate);
+            return new PageImpl<>(content, pageable, archived + live);
         }
 
-        logger.info("Fetching audits between {} and {} - Page: {}, Size: {}", startDate, endDate, page, size);
+        // Las filas de la tabla empiezan en liveOffset, que no tiene por qué coincidir con un límite de página
+        long liveOffset = Math.max(0, offset - archived);
+        int skip = (int) (liveOffset % size);
+        Page<Audith> live = findLive(startDate, endDate, entityFilter, PageRequest.of((int) (liveOffset / size), size, DATE_ORDER));
+        appendRange(content, live.getContent(), skip, size);
+        if (content.size() < size && skip > 0 && live.hasNext()) {
+            appendRange(content, findLive(startDate, endDate, entityFilter, live.nextPageable()).getContent(), 0, size);
+        }
+        return new PageImpl<>(content, pageable, archived + live.getTotalElements());
+    }
+
+    private Page<Audith> findLive(LocalDateTime startDate, LocalDateTime endDate, String entity, Pageable pageable) {
+        return entity != null
+                ? audithRepository.findByEntityIgnoreCaseAndStartDateBetween(entity, startDate, endDate, pageable)
+                : audithRepository.findByStartDateBetween(startDate, endDate, pageable);
+    }
+
+    private static void appendRange(List<Audith> content, List<Audith> rows, int from, int size) {
+        for (int i = from; i < rows.size() && content.size() < size; i++) {
+            content.add(rows.get(i));
+        }
+    }
+
+    public List<AuditStatsDTO> getAuditStats(LocalDate startDate, LocalDate endDate, String entity,
+                                             StatsGranularity granularity) {
+        logger.info("Fetching audit stats between {} and {} by {}", startDate, endDate, granularity);
+        return auditCounters.getStats(startDate, endDate, textOrNull(entity), granularity);
+    }
+
+    /**
+     * Cutoff of the archive when a range starting at startDate (null meaning unbounded)
+     * reaches it, so callers reading only the table can tell their result may be partial.
+     */
+    public LocalDateTime getArchivedBefore(LocalDateTime startDate) {
+        return auditArchive.reaches(startDate) ? auditArchive.getCutoff() : null;
+    }
+
+    public long archiveAudits() {
+        return auditArchive.archive();
+    }
+
+    @Override
+    public Page<Audith> getEntityHistory(String entity, long entityId, int page, int size) {
+        if (!StringUtils.hasText(entity)) {
+            logger.error("Entity parameter is empty.");
+            throw new ValidationException("La entidad no puede estar vacía.");
+        }
+
+        logger.info("Fetching history of {} {} - Page: {}, Size: {}", entity, entityId, page, size);
         Pageable pageable = PageRequest.of(page, size);
-        return audithRepository.findByStartDateBetween(startDate, endDate, pageable);
+        return audithRepository.findHistory(entity, entityId, pageable);
+    }
+
+    /**
+     * Filters are optional and combined with AND. path/value match audits whose request
+     * or response has that top-level key with that value; payload values are stored as
+     * strings, so nested paths are rejected. The next page starts after the returned cursor.
+     * Only the table is searched; archivedBefore is set when the range reaches archived audits.
+     */
+    @Override
+    public AuditSearchResultDTO searchAudits(AuditSearchRequest search) {
+        int size = search.getSize() != null ? search.getSize() : DEFAULT_SEARCH_SIZE;
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new ValidationException("El tamaño de página debe estar entre 1 y " + MAX_SEARCH_SIZE + ".");
+        }
+        if (search.getStartDate() != null && search.getEndDate() != null && search.getStartDate().isAfter(search.getEndDate())) {
+            logger.error("Start date {} cannot be after end date {}", search.getStartDate(), search.getEndDate());
+            throw new ValidationException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+        if ((search.getCursorDate() == null) != (search.getCursorId() == null)) {
+            throw new ValidationException("El cursor requiere cursorDate y cursorId.");
+        }
+        String payload = payloadFilter(search.getPath(), search.getValue());
+        String operation = StringUtils.hasText(search.getOperation()) ? search.getOperation().toUpperCase(Locale.ROOT) : null;
+
+        logger.info("Searching audits - entity: {}, operation: {}, path: {}, size: {}",
+                search.getEntity(), operation, search.getPath(), size);
+        List<Audith> audits = audithRepository.search(textOrNull(search.getEntity()), operation,
+                textOrNull(search.getResult()), search.getStartDate(), search.getEndDate(), payload,
+                search.getCursorDate(), search.getCursorId() != null ? search.getCursorId() : 0, size + 1);
+
+        boolean hasMore = audits.size() > size;
+        List<Audith> page = hasMore ? audits.subList(0, size) : audits;
+        Audith last = hasMore ? page.get(size - 1) : null;
+        return new AuditSearchResultDTO(page.stream().map(this::convertToDTO).toList(),
+                last != null ? last.getStartDate() : null, last != null ? last.getAuditId() : null,
+                getArchivedBefore(search.getStartDate()));
+    }
+
+    /**
+     * Writes every audit in the range, oldest first: the archived ones, then the ones
+     * still in the table, read through a server-side cursor. Returns the number of
+     * audits written.
+     */
+    @Override
+    @Transactional(transactionManager = AuditDataSourceConfig.TRANSACTION_MANAGER, readOnly = true)
+    public long exportAudits(LocalDateTime startDate, LocalDateTime endDate, AuditExportFormat format,
+                             OutputStream outputStream) throws IOException {
+        validateDateRange(startDate, endDate);
+        logger.info("Exporting {} audits between {} and {}", format, startDate, endDate);
+
+        long rows;
+        try (Stream<AuditExportRow> audits = Stream.concat(
+                auditArchive.stream(startDate, endDate).map(AudithService::toExportRow),
+                audithRepository.streamByStartDateBetween(startDate, endDate))) {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(audits, outputStream);
+                case CSV_GZIP -> writeCsvGzip(audits, outputStream);
+            };
+        }
+
+        createAudit("Audith", "Exported audits between " + startDate + " and " + endDate, "EXPORT",
+                Map.of("startDate", startDate.toString(), "endDate", endDate.toString(), "format", format.name()),
+                Map.of("rows", rows), "SUCCESS");
+        logger.info("Exported {} audits", rows);
+        return rows;
+    }
+
+    public AuditWriterMetricsDTO getWriterMetrics() {
+        return auditWriter.getMetrics();
+    }
+
+    public AuditJournalMetricsDTO getJournalMetrics() {
+        return auditJournal.getMetrics();
+    }
+
+    public List<AuditPolicyDTO> getAuditPolicies() {
+        return auditPolicy.getRules();
+    }
+
+    public AuditPolicyDTO setAuditPolicy(AuditPolicyDTO policy) {
+        return auditPolicy.setRule(policy);
+    }
+
+    public boolean removeAuditPolicy(String entity, String operation) {
+        return auditPolicy.removeRule(entity, operation);
     }
 
     public List<AudithDTO> getAllAuditDTOs(int page, int size) {
@@ -135,7 +368,10 @@ public class AudithService implements IAudithService {
         AudithDTO dto = new AudithDTO();
         dto.setAuditId(audit.getAuditId());
         dto.setEntity(audit.getEntity());
+        dto.setEntityId(audit.getEntityId());
         dto.setStartDate(convertToOffsetDateTime(audit.getStartDate()));
+        dto.setOccurrences(audit.getOccurrences());
+        dto.setLastDate(audit.getLastDate() != null ? convertToOffsetDateTime(audit.getLastDate()) : null);
         dto.setDescription(audit.getDescription());
         dto.setOperation(audit.getOperation());
         dto.setResult(audit.getResult());
@@ -169,23 +405,107 @@ public class AudithService implements IAudithService {
         }
     }
 
+    private void validateDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            logger.error("Start date or end date is null.");
+            throw new ValidationException("Las fechas de inicio y fin no pueden estar vacías.");
+        }
+        if (startDate.isAfter(endDate)) {
+            logger.error("Start date {} cannot be after end date {}", startDate, endDate);
+            throw new ValidationException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+    }
+
+    private static AuditExportRow toExportRow(Audith audit) {
+        return new AuditExportRow(audit.getAuditId(), audit.getEntity(), audit.getEntityId(), audit.getStartDate(),
+                audit.getOccurrences(), audit.getLastDate(), audit.getDescription(), audit.getOperation(),
+                audit.getResult(), audit.getRequest(), audit.getResponse());
+    }
+
+    private long writeNdjson(Stream<AuditExportRow> audits, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = exportWriter.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (AuditExportRow audit : (Iterable<AuditExportRow>) audits::iterator) {
+                exportWriter.writeValue(generator, audit);
+                generator.writeRaw('\n');
+                if (++rows % EXPORT_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsvGzip(Stream<AuditExportRow> audits, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        GZIPOutputStream gzip = new GZIPOutputStream(outputStream, 8192);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        for (AuditExportRow audit : (Iterable<AuditExportRow>) audits::iterator) {
+            writer.write(Long.toString(audit.auditId()));
+            writeCsvField(writer, audit.entity());
+            writeCsvField(writer, audit.entityId() != null ? audit.entityId().toString() : null);
+            writeCsvField(writer, audit.startDate() != null ? audit.startDate().toString() : null);
+            writeCsvField(writer, Long.toString(audit.occurrences()));
+            writeCsvField(writer, audit.lastDate() != null ? audit.lastDate().toString() : null);
+            writeCsvField(writer, audit.description());
+            writeCsvField(writer, audit.operation());
+            writeCsvField(writer, audit.result());
+            writeCsvField(writer, audit.request() != null ? exportWriter.writeValueAsString(audit.request()) : null);
+            writeCsvField(writer, audit.response() != null ? exportWriter.writeValueAsString(audit.response()) : null);
+            writer.write('\n');
+            rows++;
+        }
+        // Cierra el miembro gzip sin cerrar la respuesta
+        writer.flush();
+        gzip.finish();
+        return rows;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String textOrNull(String value) {
+        return StringUtils.hasText(value) ? value : null;
+    }
+
+    // "plate" = "P012345" -> {"plate":"P012345"}
+    private static String payloadFilter(String path, String value) {
+        if (!StringUtils.hasText(path)) {
+            if (value != null) {
+                throw new ValidationException("La búsqueda por valor requiere un path.");
+            }
+            return null;
+        }
+        if (value == null) {
+            throw new ValidationException("La búsqueda por path requiere un valor.");
+        }
+        // AuditPayloadLimiter guarda cada valor como texto, un path anidado nunca coincidiría
+        if (path.contains(".")) {
+            throw new ValidationException("La búsqueda por path solo admite claves de primer nivel.");
+        }
+        ObjectNode filter = JsonNodeFactory.instance.objectNode();
+        filter.put(path, value);
+        return filter.toString();
+    }
+
     private String truncateIfNecessary(String value) {
         if (value != null && value.length() > MAX_LENGTH) {
-            logger.warn("Truncating value: {} to maximum length of {}", value, MAX_LENGTH);
+            logger.warn("Truncating value of length {} to maximum length of {}", value.length(), MAX_LENGTH);
             return value.substring(0, MAX_LENGTH);
         }
         return value;
     }
-
-    private Map<String, Object> truncateMapValuesIfNecessary(Map<String, Object> map) {
-        if (map == null || map.isEmpty()) {
-            return map;
-        }
-        return map.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> truncateIfNecessary(String.valueOf(entry.getValue()))
-                ));
-    }
 }
-
@@ -0,0 +1,27 @@
+package org.grupo.uno.parking.data.service;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Directories whose files are the only copy of some data (journal segments,
+ * archived audits) must be configured explicitly and must not live in
+ * java.io.tmpdir, which may be wiped on reboot.
+ */
+final class DurableDirectories {
+
+    private DurableDirectories() {
+    }
+
+    static Path resolve(String property, String directory) {
+        if (directory == null || directory.isBlank()) {
+            throw new IllegalStateException(property + " es obligatorio cuando está habilitado");
+        }
+        Path path = Paths.get(directory).toAbsolutePath().normalize();
+        Path temp = Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath().normalize();
+        if (path.startsWith(temp)) {
+            throw new IllegalStateException(property + " no puede estar dentro de java.io.tmpdir: " + path);
+        }
+        return path;
+    }
+}
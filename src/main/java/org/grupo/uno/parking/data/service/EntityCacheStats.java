@@ -0,0 +1,45 @@
+package org.grupo.uno.parking.data.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.grupo.uno.parking.data.dto.CacheRegionStatsDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit rate of each second-level cache region (parking, fare and the query cache),
+ * counted since startup. A miss is a read that went to the database.
+ */
+@Service
+public class EntityCacheStats {
+
+    private final Statistics statistics;
+
+    public EntityCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<CacheRegionStatsDTO> getRegions() {
+        List<CacheRegionStatsDTO> regions = new ArrayList<>();
+        for (String region : Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().toList()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats != null) {
+                regions.add(toDTO(region, stats));
+            }
+        }
+        return regions;
+    }
+
+    private static CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics stats) {
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        double hitRate = hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+        return new CacheRegionStatsDTO(region, hits, misses, stats.getPutCount(), hitRate,
+                stats.getElementCountInMemory());
+    }
+}
@@ -0,0 +1,147 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.model.Fare;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the fares compiled into contiguous minute-of-day segments.
+ * Windows whose end is before their start (e.g. 22:00-06:00) wrap around midnight.
+ * When several fares cover the same minute the first one in the source list wins.
+ * Prices are also kept as a prefix sum over the minutes of the day, so the cost of
+ * a stay of any length is two lookups and does not allocate.
+ */
+public final class FareSchedule {
+
+    private static final Logger logger = LoggerFactory.getLogger(FareSchedule.class);
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long DEFAULT_FARE_ID = 1L;
+
+    private final int[] segmentStarts;
+    private final Fare[] segmentFares;
+    private final Fare defaultFare;
+    // cumulativePrice[m] = price of minutes [0, m) of the day
+    private final double[] cumulativePrice;
+
+    private FareSchedule(int[] segmentStarts, Fare[] segmentFares, Fare defaultFare, double[] cumulativePrice) {
+        this.segmentStarts = segmentStarts;
+        this.segmentFares = segmentFares;
+        this.defaultFare = defaultFare;
+        this.cumulativePrice = cumulativePrice;
+    }
+
+    public static FareSchedule compile(List<Fare> fares) {
+        Fare[] byMinute = new Fare[MINUTES_PER_DAY];
+        Fare defaultFare = null;
+
+        for (Fare fare : fares) {
+            if (fare.getFareId() != null && fare.getFareId() == DEFAULT_FARE_ID) {
+                defaultFare = fare;
+            }
+            int[] window = parseWindow(fare);
+            if (window == null) {
+                continue;
+            }
+            int start = window[0];
+            int end = window[1];
+            if (start <= end) {
+                claim(byMinute, fare, start, end);
+            } else {
+                claim(byMinute, fare, start, MINUTES_PER_DAY - 1);
+                claim(byMinute, fare, 0, end);
+            }
+        }
+
+        List<Integer> starts = new ArrayList<>();
+        List<Fare> segmentFares = new ArrayList<>();
+        double[] cumulativePrice = new double[MINUTES_PER_DAY + 1];
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            if (minute == 0 || byMinute[minute] != byMinute[minute - 1]) {
+                starts.add(minute);
+                segmentFares.add(byMinute[minute]);
+            }
+            Fare fare = byMinute[minute] != null ? byMinute[minute] : defaultFare;
+            double pricePerMinute = fare == null || fare.getPrice() == null ? 0 : fare.getPrice() / 60.0;
+            cumulativePrice[minute + 1] = cumulativePrice[minute] + pricePerMinute;
+        }
+
+        return new FareSchedule(
+                starts.stream().mapToInt(Integer::intValue).toArray(),
+                segmentFares.toArray(new Fare[0]),
+                defaultFare,
+                cumulativePrice);
+    }
+
+    /**
+     * Fare whose window contains the given minute of the day, falling back to the
+     * default fare (ID 1) when no window covers it. Returns null if neither exists.
+     */
+    public Fare fareAt(int minuteOfDay) {
+        int index = Arrays.binarySearch(segmentStarts, minuteOfDay);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        Fare fare = segmentFares[index];
+        return fare != null ? fare : defaultFare;
+    }
+
+    public Fare fareAt(LocalDateTime dateTime) {
+        return fareAt(dateTime.getHour() * 60 + dateTime.getMinute());
+    }
+
+    /**
+     * Price of the whole minutes between both dates, each minute charged with the fare
+     * that covers it. Minutes without fare nor default fare are free.
+     */
+    public double priceOf(LocalDateTime startDate, LocalDateTime endDate) {
+        long startSecond = startDate.toEpochSecond(ZoneOffset.UTC);
+        long minutesParked = (endDate.toEpochSecond(ZoneOffset.UTC) - startSecond) / 60;
+        if (minutesParked <= 0) {
+            return 0;
+        }
+        long from = Math.floorDiv(startSecond, 60);
+        return cumulativeUntil(from + minutesParked) - cumulativeUntil(from);
+    }
+
+    public Fare getDefaultFare() {
+        return defaultFare;
+    }
+
+    private double cumulativeUntil(long absoluteMinute) {
+        long days = Math.floorDiv(absoluteMinute, MINUTES_PER_DAY);
+        int minuteOfDay = (int) Math.floorMod(absoluteMinute, MINUTES_PER_DAY);
+        return days * cumulativePrice[MINUTES_PER_DAY] + cumulativePrice[minuteOfDay];
+    }
+
+    private static void claim(Fare[] byMinute, Fare fare, int from, int to) {
+        for (int minute = from; minute <= to; minute++) {
+            if (byMinute[minute] == null) {
+                byMinute[minute] = fare;
+            }
+        }
+    }
+
+    private static int[] parseWindow(Fare fare) {
+        if (fare.getStartTime() == null || fare.getEndTime() == null || fare.getPrice() == null) {
+            logger.warn("Skipping incomplete fare {}", fare.getFareId());
+            return null;
+        }
+        try {
+            LocalTime start = LocalTime.parse(fare.getStartTime());
+            LocalTime end = LocalTime.parse(fare.getEndTime());
+            return new int[]{start.getHour() * 60 + start.getMinute(), end.getHour() * 60 + end.getMinute()};
+        } catch (DateTimeParseException e) {
+            logger.warn("Skipping fare {} with invalid window {}-{}", fare.getFareId(), fare.getStartTime(), fare.getEndTime());
+            return null;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package org.grupo.uno.parking.data.service;
 
+import org.grupo.uno.parking.data.dto.AuditExportFormat;
+import org.grupo.uno.parking.data.dto.AuditSearchRequest;
+import org.grupo.uno.parking.data.dto.AuditSearchResultDTO;
 import org.grupo.uno.parking.data.model.Audith;
 import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -10,6 +16,9 @@ public interface IAudithService {
     Audith createAudit(String entity, String description, String operation,
                        Map<String, Object> request, Map<String, Object> response, String result);
 
+    Audith createAudit(String entity, Long entityId, String description, String operation,
+                       Map<String, Object> request, Map<String, Object> response, String result);
+
     Page<Audith> getAllAudits(int page, int size);
 
     Audith getAuditById(long id);
@@ -19,4 +28,13 @@ public interface IAudithService {
     Page<Audith> getAuditsByStartDate(LocalDateTime startDate, int page, int size);
 
     Page<Audith> getAuditsByDateRange(LocalDateTime startDate, LocalDateTime endDate, int page, int size);
+
+    Page<Audith> getAuditsByDateRange(LocalDateTime startDate, LocalDateTime endDate, String entity, int page, int size);
+
+    Page<Audith> getEntityHistory(String entity, long entityId, int page, int size);
+
+    AuditSearchResultDTO searchAudits(AuditSearchRequest search);
+
+    long exportAudits(LocalDateTime startDate, LocalDateTime endDate, AuditExportFormat format,
+                      OutputStream outputStream) throws IOException;
 }
@@ -1,9 +1,13 @@
 package org.grupo.uno.parking.data.service;
 
+import org.grupo.uno.parking.data.dto.ActiveVehicleDTO;
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
 import org.grupo.uno.parking.data.dto.ParkingDTO;
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
 import org.grupo.uno.parking.data.model.Parking;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -24,4 +28,12 @@ public interface IParkingService {
     Parking saveParking(Parking parking);
 
     void deleteParking(Long parkingId);
+
+    OccupancyDTO getOccupancy(long parkingId);
+
+    List<ActiveVehicleDTO> getActiveVehicles(long parkingId);
+
+    ParkingStatsDTO getStats(long parkingId, LocalDate startDate, LocalDate endDate);
+
+    long rebuildStats(LocalDate startDate, LocalDate endDate);
 }
@@ -1,9 +1,13 @@
 package org.grupo.uno.parking.data.service;
 
 import jakarta.validation.Valid;
+import org.grupo.uno.parking.data.dto.BatchResultDTO;
 import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.dto.ReportFormat;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -15,6 +19,10 @@ public interface IRegisterService {
 
     RegisterDTO registroDeSalida(String plate);
 
+    List<BatchResultDTO> registroDeEntradaBatch(List<RegisterDTO> entries);
+
+    List<BatchResultDTO> registroDeSalidaBatch(List<String> plates);
+
     Page<RegisterDTO> getAllRegisters(int page, int size);
 
     Optional<RegisterDTO> findById(Long registerId);
@@ -27,5 +35,8 @@ public interface IRegisterService {
 
     List<RegisterDTO> generateReportByParkingId(Long parkingId, LocalDateTime startDate, LocalDateTime endDate);
 
-    List<RegisterDTO> generateReportByParkingIdPDF(Long parkingId, LocalDateTime startDate, LocalDateTime endDate);
+    boolean hasReportRows(Long parkingId, LocalDateTime startDate, LocalDateTime endDate);
+
+    long exportReport(Long parkingId, LocalDateTime startDate, LocalDateTime endDate,
+                      ReportFormat format, OutputStream outputStream) throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.dto.ReportJobDTO;
+import org.springframework.core.io.Resource;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface IReportJobService {
+
+    ReportJobDTO submit(Long parkingId, LocalDate startDate, LocalDate endDate, ReportFormat format);
+
+    Optional<ReportJobDTO> getJob(String jobId);
+
+    Resource getJobFile(String jobId);
+}
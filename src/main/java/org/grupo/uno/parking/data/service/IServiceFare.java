@@ -15,4 +15,5 @@ public interface IServiceFare {
     void updateFare(FareDto fareDto, Long id);
     Fare addFare(FareDto fareDto);
     Optional<Fare> findByName(String name);
+    FareSchedule getFareSchedule();
 }
@@ -0,0 +1,120 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
+import org.grupo.uno.parking.data.model.Parking;
+import org.grupo.uno.parking.data.repository.ParkingRepository;
+import org.grupo.uno.parking.data.repository.RegisterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory occupancy per parking. Every lot has its own counter, so gates of
+ * different lots never contend, and admission is a CAS against the lot capacity.
+ */
+@Service
+public class OccupancyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyService.class);
+
+    private final RegisterRepository registerRepository;
+    private final ParkingRepository parkingRepository;
+    private final ConcurrentHashMap<Long, Occupancy> occupancies = new ConcurrentHashMap<>();
+
+    public OccupancyService(RegisterRepository registerRepository, ParkingRepository parkingRepository) {
+        this.registerRepository = registerRepository;
+        this.parkingRepository = parkingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            List<Object[]> snapshot = parkingRepository.findOccupancySnapshot();
+            for (Object[] row : snapshot) {
+                long parkingId = ((Number) row[0]).longValue();
+                int spaces = ((Number) row[1]).intValue();
+                int occupied = ((Number) row[2]).intValue();
+                // Un contador creado bajo demanda antes del arranque ya incluye sus ingresos
+                occupancies.putIfAbsent(parkingId, new Occupancy(spaces, occupied));
+            }
+            logger.info("Occupancy counters seeded for {} parkings", snapshot.size());
+        } catch (DataAccessException e) {
+            logger.warn("Could not seed occupancy counters, they will be loaded on demand: {}", e.getMessage());
+        }
+    }
+
+    public boolean tryAdmit(Parking parking) {
+        Occupancy occupancy = occupancyOf(parking.getParkingId(), parking.getSpaces());
+        occupancy.capacity = parking.getSpaces();
+        while (true) {
+            int occupied = occupancy.occupied.get();
+            if (occupied >= occupancy.capacity) {
+                return false;
+            }
+            if (occupancy.occupied.compareAndSet(occupied, occupied + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long parkingId) {
+        Occupancy occupancy = occupancies.get(parkingId);
+        if (occupancy == null) {
+            return;
+        }
+        while (true) {
+            int occupied = occupancy.occupied.get();
+            if (occupied == 0 || occupancy.occupied.compareAndSet(occupied, occupied - 1)) {
+                return;
+            }
+        }
+    }
+
+    public void updateCapacity(long parkingId, int spaces) {
+        Occupancy occupancy = occupancies.get(parkingId);
+        if (occupancy != null) {
+            occupancy.capacity = spaces;
+        }
+    }
+
+    public void remove(long parkingId) {
+        occupancies.remove(parkingId);
+    }
+
+    public Optional<OccupancyDTO> getOccupancy(long parkingId) {
+        Occupancy occupancy = occupancies.get(parkingId);
+        if (occupancy == null) {
+            Optional<Parking> parking = parkingRepository.findById(parkingId);
+            if (parking.isEmpty()) {
+                return Optional.empty();
+            }
+            occupancy = occupancyOf(parkingId, parking.get().getSpaces());
+        }
+        int occupied = occupancy.occupied.get();
+        int capacity = occupancy.capacity;
+        return Optional.of(new OccupancyDTO(parkingId, capacity, occupied, Math.max(capacity - occupied, 0)));
+    }
+
+    private Occupancy occupancyOf(long parkingId, int spaces) {
+        return occupancies.computeIfAbsent(parkingId, id ->
+                new Occupancy(spaces, (int) registerRepository.countByParking_ParkingIdAndEndDateIsNull(id)));
+    }
+
+    private static final class Occupancy {
+        private final AtomicInteger occupied;
+        private volatile int capacity;
+
+        private Occupancy(int capacity, int occupied) {
+            this.capacity = capacity;
+            this.occupied = new AtomicInteger(occupied);
+        }
+    }
+}
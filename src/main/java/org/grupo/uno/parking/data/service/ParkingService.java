@@ -1,7 +1,11 @@
 package org.grupo.uno.parking.data.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ActiveVehicleDTO;
+import org.grupo.uno.parking.data.dto.CacheRegionStatsDTO;
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
 import org.grupo.uno.parking.data.dto.ParkingDTO;
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
 import org.grupo.uno.parking.data.model.Parking;
 import org.grupo.uno.parking.data.repository.ParkingRepository;
 import org.grupo.uno.parking.data.repository.UserRepository;
@@ -14,6 +18,8 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,11 +39,21 @@ public class ParkingService implements IParkingService {
 
     private final ParkingRepository parkingRepository;
     private final AudithService audithService;
+    private final OccupancyService occupancyService;
+    private final ActiveSessionIndex activeSessionIndex;
+    private final ParkingStatsService parkingStatsService;
+    private final EntityCacheStats entityCacheStats;
 
     @Autowired
-    public ParkingService(ParkingRepository parkingRepository, UserRepository userRepository, AudithService audithService) {
+    public ParkingService(ParkingRepository parkingRepository, UserRepository userRepository, AudithService audithService,
+                          OccupancyService occupancyService, ActiveSessionIndex activeSessionIndex,
+                          ParkingStatsService parkingStatsService, EntityCacheStats entityCacheStats) {
         this.parkingRepository = parkingRepository;
         this.audithService = audithService;
+        this.occupancyService = occupancyService;
+        this.activeSessionIndex = activeSessionIndex;
+        this.parkingStatsService = parkingStatsService;
+        this.entityCacheStats = entityCacheStats;
     }
 
     @Override
@@ -49,6 +65,7 @@ public class ParkingService implements IParkingService {
                     logger.error(PARKING_NOT_FOUND, parkingId);
                     return new EntityNotFoundException(PARKING + TEXTO_WITH + parkingId + DOES_NOT_EXIST);
                 });
+        Map<String, Object> before = convertToMap(parking);
 
         updates.forEach((key, value) -> {
             switch (key) {
@@ -58,6 +75,13 @@ public class ParkingService implements IParkingService {
                 case "status":
                     parking.setStatus((Boolean) value);
                     break;
+                case "spaces":
+                    int spaces = ((Number) value).intValue();
+                    if (spaces < 0) {
+                        throw new IllegalArgumentException("Spaces cannot be negative");
+                    }
+                    parking.setSpaces(spaces);
+                    break;
                 default:
                     logger.error("Field {} not recognized", key);
                     throw new IllegalArgumentException("Field not recognized: " + key);
@@ -65,13 +89,18 @@ public class ParkingService implements IParkingService {
         });
 
         parkingRepository.save(parking);
+        if (updates.containsKey("spaces")) {
+            occupancyService.updateCapacity(parkingId, parking.getSpaces());
+        }
 
+        AuditDiff.Changes changes = AuditDiff.between(before, convertToMap(parking), PARKING_ID);
         audithService.createAudit(
                 PARKING,
+                parkingId,
                 "Patch parking",
                 "PATCH",
-                Map.of(PARKING_ID, parkingId, "updates", updates),
-                Map.of("patchedParking", parking),
+                changes.before(),
+                changes.after(),
                 SUCCESS
         );
 
@@ -145,6 +174,7 @@ public class ParkingService implements IParkingService {
 
         audithService.createAudit(
                 PARKING,
+                parkingId,
                 "Fetch parking by ID",
                 "GET",
                 Map.of(PARKING_ID, parkingId),
@@ -166,9 +196,11 @@ public class ParkingService implements IParkingService {
 
         logger.info("Saving new parking with details: {}", parking);
         Parking savedParking = parkingRepository.save(parking);
+        occupancyService.updateCapacity(savedParking.getParkingId(), savedParking.getSpaces());
 
         audithService.createAudit(
                 PARKING,
+                savedParking.getParkingId(),
                 "Save new parking",
                 "POST",
                 Map.of("parking", parking),
@@ -189,15 +221,19 @@ public class ParkingService implements IParkingService {
                 });
 
         validateParkingDTO(parkingDTO);
+        Map<String, Object> before = convertToMap(parking);
         updateParkingFields(parking, parkingDTO);
         parkingRepository.save(parking);
+        occupancyService.updateCapacity(parkingId, parking.getSpaces());
 
+        AuditDiff.Changes changes = AuditDiff.between(before, convertToMap(parking), PARKING_ID);
         audithService.createAudit(
                 PARKING,
+                parkingId,
                 "Update parking",
                 "PUT",
-                Map.of(PARKING_ID, parkingId, "parkingDTO", parkingDTO),
-                Map.of("updatedParking", parking),
+                changes.before(),
+                changes.after(),
                 SUCCESS
         );
         logger.info("Parking updated successfully with ID: {}", parkingId);
@@ -222,8 +258,10 @@ public class ParkingService implements IParkingService {
                 });
         try {
             parkingRepository.delete(parking);
+            occupancyService.remove(parkingId);
             audithService.createAudit(
                     PARKING,
+                    parkingId,
                     "Delete parking",
                     "DELETE",
                     Map.of(PARKING_ID, parkingId),
@@ -236,6 +274,61 @@ public class ParkingService implements IParkingService {
         }
     }
 
+    @Override
+    public OccupancyDTO getOccupancy(long parkingId) {
+        return occupancyService.getOccupancy(parkingId)
+                .orElseThrow(() -> {
+                    logger.error(PARKING_NOT_FOUND, parkingId);
+                    return new EntityNotFoundException(PARKING + TEXTO_WITH + parkingId + DOES_NOT_EXIST);
+                });
+    }
+
+    @Override
+    public List<ActiveVehicleDTO> getActiveVehicles(long parkingId) {
+        return activeSessionIndex.findByParking(parkingId).stream()
+                .map(session -> new ActiveVehicleDTO(session.registerId(), session.plate(), session.startDate(), session.parkingId()))
+                .sorted(Comparator.comparing(ActiveVehicleDTO::getStartDate))
+                .toList();
+    }
+
+    public List<CacheRegionStatsDTO> getCacheStats() {
+        return entityCacheStats.getRegions();
+    }
+
+    @Override
+    public ParkingStatsDTO getStats(long parkingId, LocalDate startDate, LocalDate endDate) {
+        validateStatsRange(startDate, endDate);
+        if (parkingRepository.findById(parkingId).isEmpty()) {
+            logger.error(PARKING_NOT_FOUND, parkingId);
+            throw new EntityNotFoundException(PARKING + TEXTO_WITH + parkingId + DOES_NOT_EXIST);
+        }
+        return parkingStatsService.getStats(parkingId, startDate, endDate);
+    }
+
+    @Override
+    public long rebuildStats(LocalDate startDate, LocalDate endDate) {
+        validateStatsRange(startDate, endDate);
+        logger.info("Rebuilding daily stats from {} to {}", startDate, endDate);
+        return parkingStatsService.backfill(startDate, endDate);
+    }
+
+    private Map<String, Object> convertToMap(Parking parking) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(PARKING_ID, parking.getParkingId());
+        map.put("name", parking.getName());
+        map.put("address", parking.getAddress());
+        map.put("phone", parking.getPhone());
+        map.put("spaces", parking.getSpaces());
+        map.put("status", parking.getStatus());
+        return map;
+    }
+
+    private void validateStatsRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date " + startDate + " cannot be after end date " + endDate);
+        }
+    }
+
     private void validateParking(Parking parking) {
         if (parking.getName() == null || parking.getName().isBlank()) {
             throw new IllegalArgumentException("Parking name is required");
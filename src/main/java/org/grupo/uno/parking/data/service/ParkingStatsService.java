@@ -0,0 +1,141 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.dto.DailyStatsDTO;
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
+import org.grupo.uno.parking.data.model.ParkingDailyStats;
+import org.grupo.uno.parking.data.model.Register;
+import org.grupo.uno.parking.data.repository.ParkingDailyStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Daily rollup of closed registers per parking and fare. Callers add or subtract
+ * a register's contribution inside the same transaction that changes the register,
+ * and the backfill rebuilds whole months from the raw rows in parallel.
+ */
+@Service
+public class ParkingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingStatsService.class);
+
+    public record Contribution(long parkingId, LocalDate statDate, long fareId, BigDecimal revenue, long minutes) {
+    }
+
+    private final ParkingDailyStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillThreads;
+
+    public ParkingStatsService(ParkingDailyStatsRepository statsRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${stats.backfill.threads:4}") int backfillThreads) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillThreads = backfillThreads;
+    }
+
+    public Optional<Contribution> contributionOf(Register register) {
+        if (register.getEndDate() == null || register.getParking() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(contributionOf(register.getParking().getParkingId(),
+                register.getFare() != null ? register.getFare().getFareId() : null,
+                register.getStartDate(), register.getEndDate(), register.getTotal()));
+    }
+
+    public Contribution contributionOf(long parkingId, Long fareId, LocalDateTime startDate, LocalDateTime endDate,
+                                       BigDecimal total) {
+        long minutes = startDate != null ? Math.max(Duration.between(startDate, endDate).toMinutes(), 0) : 0;
+        return new Contribution(parkingId, endDate.toLocalDate(), fareId != null ? fareId : 0,
+                total != null ? total : BigDecimal.ZERO, minutes);
+    }
+
+    public void add(Contribution contribution) {
+        statsRepository.upsert(contribution.parkingId(), contribution.statDate(), contribution.fareId(),
+                1, contribution.revenue(), contribution.minutes());
+    }
+
+    public void subtract(Contribution contribution) {
+        statsRepository.upsert(contribution.parkingId(), contribution.statDate(), contribution.fareId(),
+                -1, contribution.revenue().negate(), -contribution.minutes());
+    }
+
+    public ParkingStatsDTO getStats(long parkingId, LocalDate startDate, LocalDate endDate) {
+        List<DailyStatsDTO> days = new ArrayList<>();
+        Map<Long, BigDecimal> revenueByFare = new TreeMap<>();
+        long count = 0;
+        long minutes = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        for (ParkingDailyStats stats : statsRepository.findByParkingAndDateRange(parkingId, startDate, endDate)) {
+            if (stats.getRegisterCount() == 0) {
+                continue;
+            }
+            long fareId = stats.getId().getFareId();
+            days.add(new DailyStatsDTO(stats.getId().getStatDate(), fareId, stats.getRegisterCount(),
+                    stats.getRevenue(), stats.getMinutes()));
+            revenueByFare.merge(fareId, stats.getRevenue(), BigDecimal::add);
+            count += stats.getRegisterCount();
+            minutes += stats.getMinutes();
+            revenue = revenue.add(stats.getRevenue());
+        }
+
+        return new ParkingStatsDTO(parkingId, startDate, endDate, count, revenue, minutes, revenueByFare, days);
+    }
+
+    /**
+     * Recomputes the rollup for the days in [startDate, endDate] one month per task,
+     * each month replaced in its own transaction. Returns the number of rows written.
+     */
+    public long backfill(LocalDate startDate, LocalDate endDate) {
+        ExecutorService executor = Executors.newFixedThreadPool(backfillThreads);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            LocalDate chunkStart = startDate;
+            while (!chunkStart.isAfter(endDate)) {
+                LocalDate from = chunkStart;
+                LocalDate to = min(from.withDayOfMonth(1).plusMonths(1), endDate.plusDays(1));
+                chunks.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                    statsRepository.deleteRange(from, to);
+                    return statsRepository.rebuildRange(from.atStartOfDay(), to.atStartOfDay());
+                })));
+                chunkStart = to;
+            }
+
+            long rows = 0;
+            for (Future<Integer> chunk : chunks) {
+                Integer written = chunk.get();
+                rows += written != null ? written : 0;
+            }
+            logger.info("Daily stats rebuilt from {} to {} in {} chunks ({} rows)", startDate, endDate, chunks.size(), rows);
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backfill interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Backfill failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static LocalDate min(LocalDate first, LocalDate second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
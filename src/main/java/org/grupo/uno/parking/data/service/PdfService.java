@@ -17,14 +17,18 @@ import org.grupo.uno.parking.data.exceptions.ExceptionPdf;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
 public class PdfService {
 
     private static final int NUMBER_OF_COLUMNS = 5;
+    private static final int FLUSH_ROWS = 100;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public byte[] generatePdfFromJson(String json) {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -38,10 +42,20 @@ public class PdfService {
         }
 
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        writeRegistersPdf(registers.iterator(), byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
 
-        try (PdfWriter pdfWriter = new PdfWriter(byteArrayOutputStream);
+    /**
+     * Renders the registers as they are read, using iText large-table mode: rows are
+     * flushed to the output every {@value #FLUSH_ROWS} registers instead of being kept
+     * until the document is closed. The output stream is left open.
+     */
+    public void writeRegistersPdf(Iterator<RegisterDTO> registers, OutputStream outputStream) {
+        try (PdfWriter pdfWriter = new PdfWriter(outputStream);
              PdfDocument pdfDocument = new PdfDocument(pdfWriter);
              Document document = new Document(pdfDocument)) {
+            pdfWriter.setCloseStream(false);
 
             Paragraph title = new Paragraph("Registro de Vehículos")
                     .setFontSize(18)
@@ -50,8 +64,7 @@ public class PdfService {
                     .setMarginBottom(20);
             document.add(title);
 
-
-            Table table = new Table(NUMBER_OF_COLUMNS);
+            Table table = new Table(NUMBER_OF_COLUMNS, true);
             table.setWidth(UnitValue.createPercentValue(100));
             for (String header : new String[]{"ID", "Placa", "Total", "Fecha entrada", "Fecha Salida"}) {
                 Cell headerCell = new Cell().add(new Paragraph(header))
@@ -61,31 +74,32 @@ public class PdfService {
                         .setPadding(5);
                 table.addHeaderCell(headerCell);
             }
+            document.add(table);
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-            for (RegisterDTO register : registers) {
-                table.addCell(new Cell().add(new Paragraph(String.valueOf(register.getRegisterId()))));
-                table.addCell(new Cell().add(new Paragraph(register.getPlate())));
-                if (register.getTotal() != null){
-                    table.addCell(new Cell().add(new Paragraph(register.getTotal().toString())));
-                }
-                table.addCell(new Cell().add(new Paragraph(register.getStartDate().format(formatter))));
-                if(register.getEndDate() != null){
-                    table.addCell(new Cell().add(new Paragraph(register.getEndDate().format(formatter))));
+            int rows = 0;
+            while (registers.hasNext()) {
+                RegisterDTO register = registers.next();
+                table.addCell(textCell(String.valueOf(register.getRegisterId())));
+                table.addCell(textCell(register.getPlate()));
+                table.addCell(textCell(register.getTotal() != null ? register.getTotal().toString() : ""));
+                table.addCell(textCell(register.getStartDate() != null ? register.getStartDate().format(FORMATTER) : ""));
+                table.addCell(textCell(register.getEndDate() != null ? register.getEndDate().format(FORMATTER) : ""));
+                if (++rows % FLUSH_ROWS == 0) {
+                    table.flush();
                 }
             }
+            table.complete();
 
-            document.add(table);
-
-            Paragraph footer = new Paragraph("Generado el " + LocalDateTime.now().format(formatter))
+            Paragraph footer = new Paragraph("Generado el " + LocalDateTime.now().format(FORMATTER))
                     .setTextAlignment(TextAlignment.CENTER)
                     .setMarginTop(20);
             document.add(footer);
         } catch (Exception e) {
             throw new ExceptionPdf("Error generating PDF", e);
         }
+    }
 
-        return byteArrayOutputStream.toByteArray();
+    private Cell textCell(String text) {
+        return new Cell().add(new Paragraph(text != null ? text : ""));
     }
-}
\ No newline at end of file
+}
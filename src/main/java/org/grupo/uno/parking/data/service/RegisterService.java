@@ -1,27 +1,41 @@
 package org.grupo.uno.parking.data.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.BatchResultDTO;
 import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.exceptions.ParkingFullException;
+import org.grupo.uno.parking.data.exceptions.VehicleAlreadyInsideException;
 import org.grupo.uno.parking.data.model.Fare;
 import org.grupo.uno.parking.data.model.Parking;
 import org.grupo.uno.parking.data.model.Register;
 import org.grupo.uno.parking.data.repository.FareRepository;
 import org.grupo.uno.parking.data.repository.ParkingRepository;
 import org.grupo.uno.parking.data.repository.RegisterRepository;
+import org.grupo.uno.parking.data.service.ActiveSessionIndex.ActiveSession;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class RegisterService implements IRegisterService {
@@ -31,19 +45,45 @@ public class RegisterService implements IRegisterService {
     private final RegisterRepository registerRepository;
     private  final ParkingRepository parkingRepository;
     private final  FareRepository fareRepository;
+    private final IServiceFare fareService;
+    private final OccupancyService occupancyService;
+    private final ActiveSessionIndex activeSessionIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final PdfService pdfService;
+    private final ReportCache reportCache;
+    private final ParkingStatsService parkingStatsService;
     private  final AudithService audithService;
+    private final ObjectWriter reportWriter;
 
     private  static final String REGISTER = "Register";
+    private static final int REPORT_FLUSH_ROWS = 500;
     private  static final  String SUCCESS = "Succes";
 
     public RegisterService(RegisterRepository registerRepository,
                        ParkingRepository parkingRepository,
                        FareRepository fareRepository,
-                       AudithService audithService) {
+                       IServiceFare fareService,
+                       OccupancyService occupancyService,
+                       ActiveSessionIndex activeSessionIndex,
+                       TransactionTemplate transactionTemplate,
+                       PdfService pdfService,
+                       ReportCache reportCache,
+                       ParkingStatsService parkingStatsService,
+                       AudithService audithService,
+                       ObjectMapper objectMapper) {
         this.registerRepository = registerRepository;
         this.parkingRepository = parkingRepository;
         this.fareRepository = fareRepository;
+        this.fareService = fareService;
+        this.occupancyService = occupancyService;
+        this.activeSessionIndex = activeSessionIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.pdfService = pdfService;
+        this.reportCache = reportCache;
+        this.parkingStatsService = parkingStatsService;
         this.audithService = audithService;
+        this.reportWriter = objectMapper.writerFor(RegisterDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
 
@@ -54,13 +94,29 @@ public class RegisterService implements IRegisterService {
         Parking parking = parkingRepository.findById(parkingId)
                 .orElseThrow(() -> new EntityNotFoundException("Parking not found"));
 
+        LocalDateTime startDate = LocalDateTime.now();
+        reservePlate(plate, parkingId, startDate);
+
+        if (!occupancyService.tryAdmit(parking)) {
+            activeSessionIndex.cancel(plate);
+            logger.warn("Parking {} is full, entry rejected for plate {}", parkingId, plate);
+            throw new ParkingFullException("Parking " + parkingId + " is full");
+        }
+
         Register register = new Register();
         register.setPlate(plate);
         register.setParking(parking);
-        register.setStartDate(LocalDateTime.now());
+        register.setStartDate(startDate);
         register.setStatus(true);
 
-        register = registerRepository.save(register);
+        try {
+            register = registerRepository.save(register);
+        } catch (RuntimeException e) {
+            occupancyService.release(parkingId);
+            activeSessionIndex.cancel(plate);
+            throw e;
+        }
+        activeSessionIndex.activate(register.getRegisterId(), plate, register.getStartDate(), parkingId);
 
         return convertToDTO(register);
     }
@@ -70,51 +126,35 @@ public class RegisterService implements IRegisterService {
     public RegisterDTO registroDeSalida(String plate) {
         LocalDateTime endDate = LocalDateTime.now();
 
+        Optional<ActiveSession> session = activeSessionIndex.find(plate);
+        if (session.isPresent()) {
+            RegisterDTO closedRegister = closeActiveSession(session.get(), endDate);
+            if (closedRegister != null) {
+                return closedRegister;
+            }
+        }
 
         Register register = registerRepository.findActiveRegisterByPlate(plate)
                 .orElseThrow(() -> new IllegalArgumentException("Registro activo con placa " + plate + " no encontrado"));
 
-        register.setEndDate(endDate);
-
-
-        long minutesParked = java.time.Duration.between(register.getStartDate(), endDate).toMinutes();
-
-
-        List<Fare> fares = fareRepository.findAll();
-
-        Fare selectedFare = null;
-        BigDecimal total = BigDecimal.ZERO;
-
-
-        for (Fare fare : fares) {
-
-            LocalTime startTime = LocalTime.parse(fare.getStartTime());
-            LocalTime endTime = LocalTime.parse(fare.getEndTime());
-            LocalTime entryTime = register.getStartDate().toLocalTime();
-
-
-            if (!entryTime.isBefore(startTime) && !entryTime.isAfter(endTime)) {
-
-                total = BigDecimal.valueOf((minutesParked / 60.0) * fare.getPrice());
-                selectedFare = fare;
-                break;
-            }
-        }
-
-        if (selectedFare == null) {
-            selectedFare = fareRepository.findById(1L)
-                    .orElseThrow(() -> new IllegalArgumentException("Tarifa por defecto no encontrada"));
-            total = BigDecimal.valueOf((minutesParked / 60.0) * selectedFare.getPrice());
-        }
+        Fare selectedFare = selectFare(register.getStartDate());
 
+        register.setEndDate(endDate);
         register.setFare(selectedFare);
-        register.setTotal(total);
+        register.setTotal(calculateTotal(register.getStartDate(), endDate));
         register.setStatus(false);
 
-        Register updatedRegister = registerRepository.save(register);
+        Register updatedRegister = transactionTemplate.execute(status -> {
+            Register saved = registerRepository.save(register);
+            parkingStatsService.contributionOf(saved).ifPresent(parkingStatsService::add);
+            return saved;
+        });
+        activeSessionIndex.release(plate, updatedRegister.getRegisterId());
+        releaseOccupancy(register);
 
         audithService.createAudit(
                 REGISTER,
+                updatedRegister.getRegisterId(),
                 "Registro de salida actualizado",
                 "UPDATE",
                 convertEntityToMap(updatedRegister),
@@ -125,6 +165,154 @@ public class RegisterService implements IRegisterService {
         return convertToDTO(updatedRegister);
     }
 
+    @Override
+    public List<BatchResultDTO> registroDeEntradaBatch(List<RegisterDTO> entries) {
+        LocalDateTime startDate = LocalDateTime.now();
+        BatchResultDTO[] results = new BatchResultDTO[entries.size()];
+
+        Map<Long, Parking> parkings = new HashMap<>();
+        parkingRepository.findAllById(entries.stream().map(RegisterDTO::getParkingId).distinct().toList())
+                .forEach(parking -> parkings.put(parking.getParkingId(), parking));
+
+        List<Register> pending = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            String plate = entries.get(i).getPlate();
+            Parking parking = parkings.get(entries.get(i).getParkingId());
+            if (plate == null || plate.isBlank()) {
+                results[i] = new BatchResultDTO(i, plate, 400, null, "El campo 'plate' no puede estar vacío.");
+                continue;
+            }
+            if (parking == null) {
+                results[i] = new BatchResultDTO(i, plate, 404, null, "Parking not found");
+                continue;
+            }
+            try {
+                reservePlate(plate, parking.getParkingId(), startDate);
+            } catch (VehicleAlreadyInsideException e) {
+                results[i] = new BatchResultDTO(i, plate, 409, null, e.getMessage());
+                continue;
+            }
+            if (!occupancyService.tryAdmit(parking)) {
+                activeSessionIndex.cancel(plate);
+                results[i] = new BatchResultDTO(i, plate, 409, null, "Parking " + parking.getParkingId() + " is full");
+                continue;
+            }
+
+            Register register = new Register();
+            register.setPlate(plate);
+            register.setParking(parking);
+            register.setStartDate(startDate);
+            register.setStatus(true);
+            pending.add(register);
+            pendingIndexes.add(i);
+        }
+
+        if (!pending.isEmpty()) {
+            try {
+                List<Register> saved = transactionTemplate.execute(status -> registerRepository.saveAll(pending));
+                for (int j = 0; j < saved.size(); j++) {
+                    Register register = saved.get(j);
+                    int i = pendingIndexes.get(j);
+                    activeSessionIndex.activate(register.getRegisterId(), register.getPlate(), register.getStartDate(),
+                            register.getParking().getParkingId());
+                    results[i] = new BatchResultDTO(i, register.getPlate(), 201, convertToDTO(register), null);
+                    auditBatchEvent(register, "Registro de entrada en lote", "CREATE");
+                }
+            } catch (RuntimeException e) {
+                logger.error("Batch entry of {} registers failed: {}", pending.size(), e.getMessage());
+                for (int j = 0; j < pending.size(); j++) {
+                    Register register = pending.get(j);
+                    int i = pendingIndexes.get(j);
+                    occupancyService.release(register.getParking().getParkingId());
+                    activeSessionIndex.cancel(register.getPlate());
+                    results[i] = new BatchResultDTO(i, register.getPlate(), 500, null, e.getMessage());
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<BatchResultDTO> registroDeSalidaBatch(List<String> plates) {
+        LocalDateTime endDate = LocalDateTime.now();
+        BatchResultDTO[] results = new BatchResultDTO[plates.size()];
+
+        Map<String, Integer> indexByPlate = new HashMap<>();
+        for (int i = 0; i < plates.size(); i++) {
+            String plate = plates.get(i);
+            if (plate == null || plate.isBlank()) {
+                results[i] = new BatchResultDTO(i, plate, 400, null, "El campo 'plate' no puede estar vacío.");
+            } else if (indexByPlate.putIfAbsent(plate, i) != null) {
+                results[i] = new BatchResultDTO(i, plate, 409, null, "Placa " + plate + " repetida en el lote");
+            }
+        }
+
+        Map<String, ActiveSession> sessions = new HashMap<>();
+        List<String> unindexedPlates = new ArrayList<>();
+        for (String plate : indexByPlate.keySet()) {
+            activeSessionIndex.find(plate).ifPresentOrElse(
+                    session -> sessions.put(plate, session),
+                    () -> unindexedPlates.add(plate));
+        }
+
+        try {
+            List<Register> closed = transactionTemplate.execute(status -> {
+                List<Register> registers = new ArrayList<>(registerRepository.findAllById(
+                        sessions.values().stream().map(ActiveSession::registerId).toList()));
+                if (!unindexedPlates.isEmpty()) {
+                    registers.addAll(registerRepository.findActiveRegistersByPlateIn(unindexedPlates));
+                }
+                // Cierre condicionado (end_date IS NULL) como en la salida individual: si otra salida
+                // ganó la carrera la fila no cambia y este registro no se cuenta dos veces
+                List<Register> saved = new ArrayList<>();
+                for (Register register : registers) {
+                    if (register.getEndDate() != null || !indexByPlate.containsKey(register.getPlate())) {
+                        continue;
+                    }
+                    Fare selectedFare = selectFare(register.getStartDate());
+                    BigDecimal total = calculateTotal(register.getStartDate(), endDate);
+                    if (registerRepository.closeRegister(register.getRegisterId(), endDate, selectedFare, total) == 0) {
+                        logger.warn("Register {} was closed concurrently, skipping it", register.getRegisterId());
+                        continue;
+                    }
+                    Register closedRegister = new Register(register.getRegisterId(), register.getPlate(), false,
+                            register.getStartDate(), endDate, register.getParking(), selectedFare, total);
+                    parkingStatsService.contributionOf(closedRegister).ifPresent(parkingStatsService::add);
+                    saved.add(closedRegister);
+                }
+                return saved;
+            });
+
+            for (Register register : closed) {
+                activeSessionIndex.release(register.getPlate(), register.getRegisterId());
+                releaseOccupancy(register);
+                auditBatchEvent(register, "Registro de salida en lote", "UPDATE");
+                // Sin índice único en la base puede haber dos registros activos para la misma placa
+                Integer i = indexByPlate.remove(register.getPlate());
+                if (i == null) {
+                    logger.warn("Plate {} had more than one active register, closed register {}",
+                            register.getPlate(), register.getRegisterId());
+                    continue;
+                }
+                results[i] = new BatchResultDTO(i, register.getPlate(), 200, convertToDTO(register), null);
+            }
+            indexByPlate.forEach((plate, i) -> {
+                ActiveSession stale = sessions.get(plate);
+                if (stale != null) {
+                    activeSessionIndex.release(plate, stale.registerId());
+                }
+                results[i] = new BatchResultDTO(i, plate, 404, null, "Registro activo con placa " + plate + " no encontrado");
+            });
+        } catch (RuntimeException e) {
+            logger.error("Batch exit of {} plates failed: {}", indexByPlate.size(), e.getMessage());
+            indexByPlate.forEach((plate, i) -> results[i] = new BatchResultDTO(i, plate, 500, null, e.getMessage()));
+        }
+
+        return Arrays.asList(results);
+    }
+
     @Override
     public Page<RegisterDTO> getAllRegisters(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -155,12 +343,18 @@ public class RegisterService implements IRegisterService {
         validateRegister(registerDTO);
         logger.info("Saving new register with details: {}", registerDTO);
         Register register = convertToEntity(registerDTO);
-        Register savedRegister = registerRepository.save(register);
+        Register savedRegister = transactionTemplate.execute(status -> {
+            Register saved = registerRepository.save(register);
+            parkingStatsService.contributionOf(saved).ifPresent(parkingStatsService::add);
+            return saved;
+        });
+        invalidateReports(savedRegister.getParking(), savedRegister.getEndDate());
 
         RegisterDTO savedDTO = convertToDTO(savedRegister);
 
         audithService.createAudit(
                 REGISTER,
+                savedRegister.getRegisterId(),
                 "Registro creado",
                 "CREATE",
                 convertDTOToMap(registerDTO),
@@ -180,17 +374,38 @@ public class RegisterService implements IRegisterService {
 
         if (optionalRegister.isPresent()) {
             Register register = optionalRegister.get();
+            boolean wasActive = register.getEndDate() == null;
+            String previousPlate = register.getPlate();
+            Parking previousParking = register.getParking();
+            LocalDateTime previousEndDate = register.getEndDate();
+            Optional<ParkingStatsService.Contribution> previousContribution = parkingStatsService.contributionOf(register);
+            Map<String, Object> before = convertEntityToMap(register);
             updateRegisterFields(register, registerDTO);
-            Register updatedRegister = registerRepository.save(register);
+            Register updatedRegister = transactionTemplate.execute(status -> {
+                Register saved = registerRepository.save(register);
+                previousContribution.ifPresent(parkingStatsService::subtract);
+                parkingStatsService.contributionOf(saved).ifPresent(parkingStatsService::add);
+                return saved;
+            });
+            invalidateReports(previousParking, previousEndDate);
+            invalidateReports(updatedRegister.getParking(), updatedRegister.getEndDate());
+            if (wasActive && updatedRegister.getEndDate() != null) {
+                activeSessionIndex.release(previousPlate, registerId);
+                if (previousParking != null) {
+                    occupancyService.release(previousParking.getParkingId());
+                }
+            }
 
             RegisterDTO updatedDTO = convertToDTO(updatedRegister);
 
+            AuditDiff.Changes changes = AuditDiff.between(before, convertEntityToMap(updatedRegister), "registerId");
             audithService.createAudit(
                     REGISTER,
+                    registerId,
                     "Registro actualizado",
                     "UPDATE",
-                    convertDTOToMap(registerDTO),
-                    convertDTOToMap(updatedDTO),
+                    changes.before(),
+                    changes.after(),
                     SUCCESS
             );
             logger.info("Register updated successfully with ID: {}", registerId);
@@ -208,10 +423,20 @@ public class RegisterService implements IRegisterService {
             Optional<Register> optionalRegister = registerRepository.findById(registerId);
             if (optionalRegister.isPresent()) {
                 Register register = optionalRegister.get();
-                registerRepository.deleteById(registerId);
+                transactionTemplate.execute(status -> {
+                    registerRepository.deleteById(registerId);
+                    parkingStatsService.contributionOf(register).ifPresent(parkingStatsService::subtract);
+                    return null;
+                });
+                invalidateReports(register.getParking(), register.getEndDate());
+                if (register.getEndDate() == null) {
+                    activeSessionIndex.release(register.getPlate(), registerId);
+                    releaseOccupancy(register);
+                }
 
                 audithService.createAudit(
                         REGISTER,
+                        registerId,
                         "Registro eliminado",
                         "DELETE",
                         convertEntityToMap(register),
@@ -256,30 +481,172 @@ public class RegisterService implements IRegisterService {
     }
 
     @Override
-    public List<RegisterDTO> generateReportByParkingIdPDF(Long parkingId, LocalDateTime startDate, LocalDateTime endDate) {
-        logger.info("Generating PDF report for parking ID: {}", parkingId);
+    public boolean hasReportRows(Long parkingId, LocalDateTime startDate, LocalDateTime endDate) {
+        return registerRepository.existsByParking_ParkingIdAndTotalGreaterThanAndEndDateBetween(
+                parkingId, BigDecimal.ZERO, startDate, endDate);
+    }
 
-        List<Register> registers = registerRepository.findActiveRegistersByParkingIdAndDateRange(parkingId, startDate, endDate);
-        if (registers.isEmpty()) {
-            logger.warn("No registers found for parking ID: {}", parkingId);
-            throw new IllegalArgumentException("No registers found for parking ID " + parkingId);
-        }
+    @Override
+    public long exportReport(Long parkingId, LocalDateTime startDate, LocalDateTime endDate,
+                             ReportFormat format, OutputStream outputStream) throws IOException {
+        logger.info("Streaming {} report for parking ID: {}", format, parkingId);
 
-        List<RegisterDTO> registerDTOs = registers.stream()
-                .map(this::convertToDTO)
-                .toList();
+        // A cache hit never calls writeReport, so the audit stays here to cover both paths.
+        // Only a render opens the transaction the cursor needs, a hit holds no connection
+        long rows = reportCache.export(parkingId, startDate, endDate, format, outputStream,
+                out -> writeReport(parkingId, startDate, endDate, format, out));
 
         audithService.createAudit(
                 REGISTER,
-                "Generated PDF report for parking ID: " + parkingId,
+                "Streamed report for parking ID: " + parkingId,
                 "REPORT",
+                Map.of("parkingId", parkingId, "format", format.name()),
+                Map.of("rows", rows),
+                SUCCESS
+        );
+
+        logger.info("Report streamed for parking ID: {} ({} rows)", parkingId, rows);
+        return rows;
+    }
+
+    private long writeReport(Long parkingId, LocalDateTime startDate, LocalDateTime endDate,
+                             ReportFormat format, OutputStream outputStream) throws IOException {
+        try {
+            return transactionTemplate.execute(status -> {
+                try (Stream<RegisterDTO> registers = registerRepository.streamReportByParkingIdAndDateRange(parkingId, startDate, endDate)) {
+                    CountingIterator<RegisterDTO> iterator = new CountingIterator<>(registers.iterator());
+                    switch (format) {
+                        case PDF -> pdfService.writeRegistersPdf(iterator, outputStream);
+                        case NDJSON -> writeNdjson(iterator, outputStream);
+                    }
+                    return iterator.count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Iterator<RegisterDTO> registers, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = reportWriter.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            int rows = 0;
+            while (registers.hasNext()) {
+                reportWriter.writeValue(generator, registers.next());
+                generator.writeRaw('\n');
+                if (++rows % REPORT_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private static final class CountingIterator<T> implements Iterator<T> {
+        private final Iterator<T> delegate;
+        private long count;
+
+        private CountingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            count++;
+            return delegate.next();
+        }
+    }
+
+    // Una auditoría por evento, para que la búsqueda y el historial por registro los encuentren
+    private void auditBatchEvent(Register register, String description, String operation) {
+        audithService.createAudit(
+                REGISTER,
+                register.getRegisterId(),
+                description,
+                operation,
+                Map.of("plate", register.getPlate()),
+                convertEntityToMap(register),
+                SUCCESS
+        );
+    }
+
+    private void reservePlate(String plate, long parkingId, LocalDateTime startDate) {
+        boolean alreadyInside = !activeSessionIndex.reserve(plate, parkingId, startDate);
+        if (!alreadyInside && !activeSessionIndex.isLoaded()
+                && registerRepository.findActiveRegisterByPlate(plate).isPresent()) {
+            activeSessionIndex.cancel(plate);
+            alreadyInside = true;
+        }
+        if (alreadyInside) {
+            logger.warn("Vehicle with plate {} is already inside, entry rejected", plate);
+            throw new VehicleAlreadyInsideException("El vehículo con placa " + plate + " ya se encuentra dentro");
+        }
+    }
+
+    private RegisterDTO closeActiveSession(ActiveSession session, LocalDateTime endDate) {
+        Fare selectedFare = selectFare(session.startDate());
+        BigDecimal total = calculateTotal(session.startDate(), endDate);
+
+        Integer closed = transactionTemplate.execute(status -> {
+            int rows = registerRepository.closeRegister(session.registerId(), endDate, selectedFare, total);
+            if (rows > 0) {
+                parkingStatsService.add(parkingStatsService.contributionOf(session.parkingId(), selectedFare.getFareId(),
+                        session.startDate(), endDate, total));
+            }
+            return rows;
+        });
+        activeSessionIndex.release(session.plate(), session.registerId());
+        if (closed == null || closed == 0) {
+            logger.warn("Register {} was already closed, looking it up in the database", session.registerId());
+            return null;
+        }
+        occupancyService.release(session.parkingId());
+
+        RegisterDTO closedRegister = new RegisterDTO(session.registerId(), session.plate(), false, session.startDate(),
+                endDate, session.parkingId(), selectedFare.getFareId(), total);
+
+        audithService.createAudit(
+                REGISTER,
+                session.registerId(),
+                "Registro de salida actualizado",
+                "UPDATE",
+                convertDTOToMap(closedRegister),
                 null,
-                convertListToMap(registerDTOs),
                 SUCCESS
         );
 
-        logger.info("PDF report generated successfully for parking ID: {}", parkingId);
-        return registerDTOs;
+        return closedRegister;
+    }
+
+    private Fare selectFare(LocalDateTime startDate) {
+        Fare selectedFare = fareService.getFareSchedule().fareAt(startDate);
+        if (selectedFare == null) {
+            throw new IllegalArgumentException("Tarifa por defecto no encontrada");
+        }
+        return selectedFare;
+    }
+
+    private BigDecimal calculateTotal(LocalDateTime startDate, LocalDateTime endDate) {
+        double total = fareService.getFareSchedule().priceOf(startDate, endDate);
+        return BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private void invalidateReports(Parking parking, LocalDateTime endDate) {
+        if (parking != null) {
+            reportCache.invalidate(parking.getParkingId(), endDate);
+        }
+    }
+
+    private void releaseOccupancy(Register register) {
+        if (register.getParking() != null) {
+            occupancyService.release(register.getParking().getParkingId());
+        }
     }
 
     private void validateRegister(RegisterDTO registerDTO) {
@@ -292,10 +659,10 @@ public class RegisterService implements IRegisterService {
         if (registerDTO.getEndDate() == null) {
             throw new IllegalArgumentException("La fecha de finalización no puede estar vacía.");
         }
-        if (!parkingRepository.existsById(registerDTO.getParkingId())) {
+        if (parkingRepository.findById(registerDTO.getParkingId()).isEmpty()) {
             throw new IllegalArgumentException("Parking con ID " + registerDTO.getParkingId() + " no encontrado.");
         }
-        if (!fareRepository.existsById(registerDTO.getFareId())) {
+        if (fareRepository.findById(registerDTO.getFareId()).isEmpty()) {
             throw new IllegalArgumentException("Fare con ID " + registerDTO.getFareId() + " no encontrado.");
         }
     }
@@ -0,0 +1,213 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered reports for ranges that ended in the past, kept as files and evicted
+ * least-recently-used first once the total size goes over the budget. Hits are
+ * copied with FileChannel.transferTo; misses are written to the client and to
+ * the cache file at the same time.
+ */
+@Service
+public class ReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCache.class);
+    private static final String FILE_PREFIX = "report-";
+
+    @FunctionalInterface
+    public interface ReportWriter {
+        long write(OutputStream outputStream) throws IOException;
+    }
+
+    private record Key(long parkingId, LocalDateTime startDate, LocalDateTime endDate, ReportFormat format) {
+    }
+
+    private record Entry(Path file, long size, long rows) {
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong invalidations = new AtomicLong();
+    private long totalBytes;
+
+    public ReportCache(@Value("${report.cache.directory:${java.io.tmpdir}/parking-report-cache}") String directory,
+                       @Value("${report.cache.max-bytes:268435456}") long maxBytes) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(this.directory);
+            // The index lives in memory, files left by a previous run cannot be reused.
+            // The directory may be shared, so only report-*.<ext> files are ours to delete
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, ReportCache::isCacheFile)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar el directorio de caché " + directory, e);
+        }
+    }
+
+    private static boolean isCacheFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && Files.isRegularFile(file)
+                && Arrays.stream(ReportFormat.values()).anyMatch(format -> name.endsWith("." + format.getExtension()));
+    }
+
+    public long export(long parkingId, LocalDateTime startDate, LocalDateTime endDate, ReportFormat format,
+                       OutputStream outputStream, ReportWriter writer) throws IOException {
+        if (!endDate.isBefore(LocalDateTime.now())) {
+            return writer.write(outputStream);
+        }
+
+        Key key = new Key(parkingId, startDate, endDate, format);
+        long rows;
+        FileChannel channel;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                channel = null;
+                rows = 0;
+            } else {
+                // Opened under the lock so a concurrent eviction cannot delete it before we read it
+                channel = FileChannel.open(entry.file(), StandardOpenOption.READ);
+                rows = entry.rows();
+            }
+        }
+        if (channel != null) {
+            logger.debug("Report cache hit for parking ID: {} ({})", parkingId, format);
+            try (channel) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+            return rows;
+        }
+
+        long generation = invalidations.get();
+        Path file = Files.createTempFile(directory, FILE_PREFIX, "." + format.getExtension());
+        try {
+            try (OutputStream fileStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+                rows = writer.write(new TeeOutputStream(outputStream, fileStream));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        store(key, file, rows, generation);
+        return rows;
+    }
+
+    public synchronized boolean contains(long parkingId, LocalDateTime startDate, LocalDateTime endDate, ReportFormat format) {
+        return entries.containsKey(new Key(parkingId, startDate, endDate, format));
+    }
+
+    /**
+     * Drops every cached report of the parking whose range contains the given end date.
+     */
+    public void invalidate(long parkingId, LocalDateTime endDate) {
+        if (endDate == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        synchronized (this) {
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> cached = iterator.next();
+                Key key = cached.getKey();
+                if (key.parkingId() == parkingId && !endDate.isBefore(key.startDate()) && !endDate.isAfter(key.endDate())) {
+                    iterator.remove();
+                    delete(cached.getValue());
+                }
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized void store(Key key, Path file, long rows, long generation) throws IOException {
+        long size = Files.size(file);
+        if (generation != invalidations.get() || size > maxBytes) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(file, size, rows));
+        if (previous != null) {
+            delete(previous);
+        }
+        totalBytes += size;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            delete(evicted);
+        }
+    }
+
+    private void delete(Entry entry) {
+        totalBytes -= entry.size();
+        try {
+            Files.deleteIfExists(entry.file());
+        } catch (IOException e) {
+            logger.warn("Could not delete cached report {}: {}", entry.file(), e.getMessage());
+        }
+    }
+
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        private TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
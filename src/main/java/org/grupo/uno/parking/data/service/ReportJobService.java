@@ -0,0 +1,216 @@
+package org.grupo.uno.parking.data.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.dto.ReportJobDTO;
+import org.grupo.uno.parking.data.dto.ReportJobStatus;
+import org.grupo.uno.parking.data.exceptions.ReportQueueFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders reports in a small, bounded worker pool so they never hold request
+ * threads. Submissions beyond the queue capacity are rejected instead of piling up,
+ * and finished jobs are forgotten (and their files deleted) after the TTL.
+ */
+@Service
+public class ReportJobService implements IReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final IRegisterService registerService;
+    private final Path directory;
+    private final long ttlMinutes;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    public ReportJobService(IRegisterService registerService,
+                            @Value("${report.jobs.workers:2}") int workers,
+                            @Value("${report.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${report.jobs.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${report.jobs.directory:${java.io.tmpdir}/parking-reports}") String directory) {
+        this.registerService = registerService;
+        this.ttlMinutes = ttlMinutes;
+        this.directory = Paths.get(directory);
+        try {
+            Files.createDirectories(this.directory);
+            // Jobs live in memory, files and .part leftovers from a previous run can never be downloaded.
+            // The directory may be shared, so only <job id>.<ext> files are ours to delete
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, ReportJobService::isJobFile)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar el directorio de reportes " + directory, e);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static boolean isJobFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || !Files.isRegularFile(file)) {
+            return false;
+        }
+        String extension = name.substring(dot + 1);
+        if (!extension.equals("part")
+                && Arrays.stream(ReportFormat.values()).noneMatch(format -> format.getExtension().equals(extension))) {
+            return false;
+        }
+        String id = name.substring(0, dot);
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public ReportJobDTO submit(Long parkingId, LocalDate startDate, LocalDate endDate, ReportFormat format) {
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), parkingId, startDate, endDate, format);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            logger.warn("Report queue full, rejecting report for parking ID: {}", parkingId);
+            throw new ReportQueueFullException("La cola de reportes está llena, intente más tarde");
+        }
+        logger.info("Report job {} queued for parking ID: {}", job.id, parkingId);
+        return toDTO(job);
+    }
+
+    @Override
+    public Optional<ReportJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toDTO);
+    }
+
+    @Override
+    public Resource getJobFile(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Report job " + jobId + " does not exist");
+        }
+        if (job.status != ReportJobStatus.DONE) {
+            throw new IllegalStateException("Report job " + jobId + " is " + job.status);
+        }
+        return new FileSystemResource(job.file);
+    }
+
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(ttlMinutes);
+        Iterator<ReportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ReportJob job = iterator.next();
+            if (job.finishedAt != null && job.finishedAt.isBefore(limit)) {
+                iterator.remove();
+                deleteQuietly(job.file);
+                logger.info("Report job {} expired", job.id);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        Path partial = directory.resolve(job.id + ".part");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                LocalDateTime startDate = job.startDate.atStartOfDay();
+                LocalDateTime endDate = job.endDate.atTime(LocalTime.MAX);
+                job.rows = registerService.exportReport(job.parkingId, startDate, endDate, job.format, outputStream);
+            }
+            job.file = Files.move(partial, directory.resolve(job.id + "." + job.format.getExtension()),
+                    StandardCopyOption.REPLACE_EXISTING);
+            job.status = ReportJobStatus.DONE;
+            logger.info("Report job {} finished with {} rows", job.id, job.rows);
+        } catch (Exception e) {
+            logger.error("Report job {} failed: ", job.id, e);
+            deleteQuietly(partial);
+            job.error = e.getMessage();
+            job.status = ReportJobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private ReportJobDTO toDTO(ReportJob job) {
+        return new ReportJobDTO(job.id, job.parkingId, job.startDate, job.endDate, job.format, job.status,
+                job.rows, job.error, job.createdAt, job.finishedAt);
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final long parkingId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final ReportFormat format;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile long rows;
+        private volatile String error;
+        private volatile Path file;
+        private volatile LocalDateTime finishedAt;
+
+        private ReportJob(String id, long parkingId, LocalDate startDate, LocalDate endDate, ReportFormat format) {
+            this.id = id;
+            this.parkingId = parkingId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.format = format;
+        }
+    }
+}
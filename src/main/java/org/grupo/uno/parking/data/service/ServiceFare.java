@@ -1,7 +1,7 @@
 package org.grupo.uno.parking.data.service;
 
 import jakarta.persistence.EntityNotFoundException;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import org.grupo.uno.parking.data.dto.FareDto;
 import org.grupo.uno.parking.data.exception.AllDataRequiredException;
 import org.grupo.uno.parking.data.exceptions.FareExist;
@@ -18,14 +18,16 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Service
 public class ServiceFare implements IServiceFare {
 
     private static final Logger logger = LoggerFactory.getLogger(ServiceFare.class);
     private final FareRepository fareRepository;
     private final AudithService audithService;
+    private final AtomicReference<FareSchedule> fareSchedule = new AtomicReference<>();
 
     private static final String MESSAGE1="This Fare doesn't exist";
     private  static final String SUCCESS="Success";
@@ -64,6 +66,7 @@ public class ServiceFare implements IServiceFare {
 
         audithService.createAudit(
                 "Fare",
+                id,
                 "Retrieved fare with ID " + id,
                 "READ",
                 null,
@@ -76,19 +79,19 @@ public class ServiceFare implements IServiceFare {
 
     @Override
     public void delete(Long idFare) {
-        if (!fareRepository.existsById(idFare)) {
+        Fare fareToDelete = fareRepository.findById(idFare).orElseThrow(() -> {
             logger.error("Fare not found");
-            throw new EntityNotFoundException("This fare doesn't exist");
-        }
+            return new EntityNotFoundException("This fare doesn't exist");
+        });
 
         try {
-            Fare fareToDelete = fareRepository.findById(idFare)
-                    .orElseThrow(() -> new EntityNotFoundException(MESSAGE1));
             fareRepository.deleteById(idFare);
+            refreshFareSchedule();
 
 
             audithService.createAudit(
                     "Fare",
+                    idFare,
                     "Fare with ID " + idFare + " was deleted",
                     "DELETE",
                     convertToMap(fareToDelete),
@@ -102,13 +105,11 @@ public class ServiceFare implements IServiceFare {
 
     @Override
     public void updateFare(FareDto fareDto, Long id) {
-        if (!fareRepository.existsById(id)) {
+        Fare fare = fareRepository.findById(id).orElseThrow(() -> {
             logger.warn("Fare not exist with this id");
-            throw new EntityNotFoundException(MESSAGE1);
-        }
-
-        Fare fare = fareRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(MESSAGE1));
+            return new EntityNotFoundException(MESSAGE1);
+        });
+        Map<String, Object> before = convertToMap(fare);
 
         if (fareDto.getName() != null) {
             Optional<Fare> existingFareWithName = fareRepository.findByName(fareDto.getName());
@@ -124,14 +125,16 @@ public class ServiceFare implements IServiceFare {
         if (fareDto.getStatus() != null) fare.setStatus(fareDto.getStatus());
 
         fareRepository.save(fare);
+        refreshFareSchedule();
 
-
+        AuditDiff.Changes changes = AuditDiff.between(before, convertToMap(fare), "id");
         audithService.createAudit(
                 "Fare",
+                id,
                 "Fare with ID " + id + " was updated",
                 "UPDATE",
-                convertToMap(fare),
-                convertToMap(fare),
+                changes.before(),
+                changes.after(),
                 "SUCCESS"
         );
     }
@@ -161,10 +164,11 @@ public class ServiceFare implements IServiceFare {
         logger.info("Fare created {}", fareDto.getName());
 
         fare = fareRepository.save(fare);
-
+        refreshFareSchedule();
 
         audithService.createAudit(
                 "Fare",
+                fare.getFareId(),
                 "Fare created with name " + fareDto.getName(),
                 "CREATE",
                 convertToMap(fare),
@@ -180,6 +184,19 @@ public class ServiceFare implements IServiceFare {
         return fareRepository.findByName(name);
     }
 
+    @Override
+    public FareSchedule getFareSchedule() {
+        FareSchedule schedule = fareSchedule.get();
+        return schedule != null ? schedule : refreshFareSchedule();
+    }
+
+    public synchronized FareSchedule refreshFareSchedule() {
+        FareSchedule schedule = FareSchedule.compile(fareRepository.findAll());
+        fareSchedule.set(schedule);
+        logger.info("Fare schedule rebuilt");
+        return schedule;
+    }
+
     private Map<String, Object> convertToMap(Fare fare) {
         Map<String, Object> fareMap = new HashMap<>();
         fareMap.put("id", fare.getFareId());
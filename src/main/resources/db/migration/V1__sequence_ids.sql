@@ -0,0 +1,26 @@
+-- Identificadores generados por secuencias (allocationSize = 50, optimizador pooled de Hibernate).
+-- IDENTITY impide que Hibernate agrupe los INSERT en lotes JDBC.
+
+CREATE SEQUENCE IF NOT EXISTS register_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS audith_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS fare_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS parking_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_seq INCREMENT BY 50;
+
+-- El optimizador pooled reserva [valor - 49, valor], por eso se arranca 50 por encima del máximo actual.
+SELECT setval('register_seq', COALESCE((SELECT MAX(register_id) FROM register), 0) + 50, false);
+SELECT setval('audith_seq', COALESCE((SELECT MAX(audit_id) FROM audith), 0) + 50, false);
+SELECT setval('fare_seq', COALESCE((SELECT MAX(fare_id) FROM fare), 0) + 50, false);
+SELECT setval('parking_seq', COALESCE((SELECT MAX(parking_id) FROM parking), 0) + 50, false);
+SELECT setval('user_seq', COALESCE((SELECT MAX(user_id) FROM "user"), 0) + 50, false);
+
+ALTER TABLE register ALTER COLUMN register_id DROP IDENTITY IF EXISTS;
+ALTER TABLE register ALTER COLUMN register_id DROP DEFAULT;
+ALTER TABLE audith ALTER COLUMN audit_id DROP IDENTITY IF EXISTS;
+ALTER TABLE audith ALTER COLUMN audit_id DROP DEFAULT;
+ALTER TABLE fare ALTER COLUMN fare_id DROP IDENTITY IF EXISTS;
+ALTER TABLE fare ALTER COLUMN fare_id DROP DEFAULT;
+ALTER TABLE parking ALTER COLUMN parking_id DROP IDENTITY IF EXISTS;
+ALTER TABLE parking ALTER COLUMN parking_id DROP DEFAULT;
+ALTER TABLE "user" ALTER COLUMN user_id DROP IDENTITY IF EXISTS;
+ALTER TABLE "user" ALTER COLUMN user_id DROP DEFAULT;
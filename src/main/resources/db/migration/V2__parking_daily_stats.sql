@@ -0,0 +1,21 @@
+-- Acumulado diario por parqueo y tarifa de los registros cerrados (fecha de salida).
+-- fare_id = 0 agrupa los registros sin tarifa.
+
+CREATE TABLE IF NOT EXISTS parking_daily_stats (
+    parking_id     BIGINT         NOT NULL,
+    stat_date      DATE           NOT NULL,
+    fare_id        BIGINT         NOT NULL,
+    register_count BIGINT         NOT NULL DEFAULT 0,
+    revenue        NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    minutes        BIGINT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (parking_id, stat_date, fare_id)
+);
+
+-- Carga inicial con el histórico; después se mantiene desde RegisterService.
+INSERT INTO parking_daily_stats (parking_id, stat_date, fare_id, register_count, revenue, minutes)
+SELECT r.parking_id, CAST(r.end_date AS date), COALESCE(r.fare_id, 0), COUNT(*), COALESCE(SUM(r.total), 0),
+       COALESCE(SUM(GREATEST(FLOOR(EXTRACT(EPOCH FROM (r.end_date - r.start_date)) / 60), 0)), 0)
+FROM register r
+WHERE r.parking_id IS NOT NULL AND r.end_date IS NOT NULL
+GROUP BY r.parking_id, CAST(r.end_date AS date), COALESCE(r.fare_id, 0)
+ON CONFLICT (parking_id, stat_date, fare_id) DO NOTHING;
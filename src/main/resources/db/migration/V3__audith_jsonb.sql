@@ -0,0 +1,5 @@
+-- request y response se enlazan como jsonb nativo (@JdbcTypeCode(SqlTypes.JSON)).
+-- Las filas antiguas sin payload se guardaban como NULL y se mantienen así.
+
+ALTER TABLE audith ALTER COLUMN request TYPE jsonb USING request::jsonb;
+ALTER TABLE audith ALTER COLUMN response TYPE jsonb USING response::jsonb;
@@ -0,0 +1,9 @@
+-- Índices para POST /audith/search. jsonb_path_ops solo sirve para @>, pero es más
+-- pequeño y rápido que el operador por defecto.
+
+CREATE INDEX IF NOT EXISTS idx_audith_request_path ON audith USING GIN (request jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_audith_response_path ON audith USING GIN (response jsonb_path_ops);
+
+-- Orden del keyset (start_date, audit_id), solo o filtrado por entidad
+CREATE INDEX IF NOT EXISTS idx_audith_start_date ON audith (start_date DESC, audit_id DESC);
+CREATE INDEX IF NOT EXISTS idx_audith_entity_start_date ON audith (upper(entity), start_date DESC, audit_id DESC);
@@ -0,0 +1,15 @@
+-- Identificador del registro auditado (fare, parking o register), para el historial por registro.
+
+ALTER TABLE audith ADD COLUMN IF NOT EXISTS entity_id BIGINT;
+
+-- Auditorías anteriores: el ID solo estaba dentro del request/response
+UPDATE audith SET entity_id = CAST(COALESCE(request ->> 'id', response ->> 'id') AS BIGINT)
+WHERE entity_id IS NULL AND upper(entity) = 'FARE' AND COALESCE(request ->> 'id', response ->> 'id') ~ '^[0-9]+$';
+UPDATE audith SET entity_id = CAST(COALESCE(request ->> 'parkingId', response ->> 'parkingId') AS BIGINT)
+WHERE entity_id IS NULL AND upper(entity) = 'PARKING' AND COALESCE(request ->> 'parkingId', response ->> 'parkingId') ~ '^[0-9]+$';
+UPDATE audith SET entity_id = CAST(COALESCE(request ->> 'registerId', response ->> 'registerId') AS BIGINT)
+WHERE entity_id IS NULL AND upper(entity) = 'REGISTER' AND operation <> 'REPORT'
+  AND COALESCE(request ->> 'registerId', response ->> 'registerId') ~ '^[0-9]+$';
+
+CREATE INDEX IF NOT EXISTS idx_audith_entity_entity_id ON audith (upper(entity), entity_id, start_date DESC, audit_id DESC)
+    WHERE entity_id IS NOT NULL;
@@ -0,0 +1,19 @@
+-- Número de auditorías por hora, entidad, operación y resultado (GET /audith/stats).
+-- result = '' agrupa las auditorías sin resultado.
+
+CREATE TABLE IF NOT EXISTS audit_hourly_stats (
+    bucket      TIMESTAMP    NOT NULL,
+    entity      VARCHAR(255) NOT NULL,
+    operation   VARCHAR(255) NOT NULL,
+    result      VARCHAR(255) NOT NULL,
+    audit_count BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket, entity, operation, result)
+);
+
+-- Carga inicial con las auditorías que siguen en la tabla; después se mantiene desde AuditCounters.
+INSERT INTO audit_hourly_stats (bucket, entity, operation, result, audit_count)
+SELECT date_trunc('hour', a.start_date), a.entity, a.operation, COALESCE(a.result, ''), COUNT(*)
+FROM audith a
+WHERE a.start_date IS NOT NULL AND a.entity IS NOT NULL AND a.operation IS NOT NULL
+GROUP BY date_trunc('hour', a.start_date), a.entity, a.operation, COALESCE(a.result, '')
+ON CONFLICT (bucket, entity, operation, result) DO NOTHING;
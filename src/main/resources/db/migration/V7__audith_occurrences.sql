@@ -0,0 +1,5 @@
+-- Auditorías idénticas dentro de una ventana se guardan en una sola fila:
+-- start_date es la primera ocurrencia y last_date la última.
+
+ALTER TABLE audith ADD COLUMN IF NOT EXISTS occurrences BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE audith ADD COLUMN IF NOT EXISTS last_date TIMESTAMP;
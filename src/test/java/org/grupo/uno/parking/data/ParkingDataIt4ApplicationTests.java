@@ -3,7 +3,8 @@ package org.grupo.uno.parking.data;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Flyway migra al arrancar y necesita la base; aquí solo se verifica el contexto
+@SpringBootTest(properties = {"spring.flyway.enabled=false", "audit.journal.directory=target/audit-journal"})
 class ParkingDataIt4ApplicationTests {
 
 	@Test
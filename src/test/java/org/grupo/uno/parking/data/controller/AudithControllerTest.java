@@ -2,7 +2,16 @@ package org.grupo.uno.parking.data.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.ValidationException;
+import org.grupo.uno.parking.data.dto.AuditExportFormat;
+import org.grupo.uno.parking.data.dto.AuditMode;
+import org.grupo.uno.parking.data.dto.AuditPolicyDTO;
+import org.grupo.uno.parking.data.dto.AuditSearchRequest;
+import org.grupo.uno.parking.data.dto.AuditSearchResultDTO;
+import org.grupo.uno.parking.data.dto.AuditStatsDTO;
+import org.grupo.uno.parking.data.dto.AuditWriterMetricsDTO;
 import org.grupo.uno.parking.data.dto.DateRangeRequest;
+import org.grupo.uno.parking.data.dto.StatsGranularity;
 import org.grupo.uno.parking.data.model.Audith;
 import org.grupo.uno.parking.data.service.AudithService;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,20 +25,32 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -123,6 +144,21 @@ class AudithControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(0));
     }
 
+    @Test
+    void getEntityHistory_success_returnsOk() throws Exception {
+        Page<Audith> mockPage = Mockito.mock(Page.class);
+        when(mockPage.getContent()).thenReturn(new ArrayList<>());
+        when(mockPage.getTotalPages()).thenReturn(1);
+        when(mockPage.getNumber()).thenReturn(0);
+        when(mockPage.getTotalElements()).thenReturn(0L);
+        when(audithService.getEntityHistory("Parking", 3L, 0, 10)).thenReturn(mockPage);
+
+        mockMvc.perform(get("/audith/entity/Parking/3/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.audiths").isArray())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
     @Test
     void getAuditsByEntity_failure_returnsInternalServerError() throws Exception {
         when(audithService.getAuditsByEntity("TestEntity", 0, 10)).thenThrow(new RuntimeException("Database error"));
@@ -144,7 +180,7 @@ class AudithControllerTest {
         when(mockPage.getTotalPages()).thenReturn(1);
         when(mockPage.getNumber()).thenReturn(0);
         when(mockPage.getTotalElements()).thenReturn(0L);
-        when(audithService.getAuditsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anyInt()))
+        when(audithService.getAuditsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), isNull(), anyInt(), anyInt()))
                 .thenReturn(mockPage);
 
         mockMvc.perform(post("/audith/date-range")
@@ -172,7 +208,7 @@ class AudithControllerTest {
     @Test
     void getAuditsByDateRange_failure_returnsInternalServerError() throws Exception {
         DateRangeRequest request = new DateRangeRequest("2024-01-01T00:00:00", "2024-01-31T23:59:59");
-        when(audithService.getAuditsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anyInt()))
+        when(audithService.getAuditsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), isNull(), anyInt(), anyInt()))
                 .thenThrow(new RuntimeException("Database error"));
 
         mockMvc.perform(post("/audith/date-range")
@@ -201,7 +237,7 @@ class AudithControllerTest {
         Audith mockAudit = new Audith();
         mockAudit.setEntity("Test Entity");
         mockAudit.setDescription("Test Description");
-        when(audithService.createAudit(any(), any(), any(), any(), any(), any()))
+        when(audithService.createAudit(any(), any(), any(), any(), any(), any(), any()))
                 .thenThrow(new RuntimeException("Database error"));
 
         mockMvc.perform(post("/audith/manual")
@@ -211,4 +247,132 @@ class AudithControllerTest {
                 .andExpect(content().string("Error al crear la auditoría: Database error"));
     }
 
+    @Test
+    void getWriterMetrics_returnsOk() throws Exception {
+        when(audithService.getWriterMetrics()).thenReturn(new AuditWriterMetricsDTO("BLOCK", 3, 10000, 120, 117, 0, 0, 0, 0, 2, 4));
+
+        mockMvc.perform(get("/audith/writer/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queued").value(3))
+                .andExpect(jsonPath("$.written").value(117))
+                .andExpect(jsonPath("$.backpressure").value("BLOCK"));
+    }
+
+    @Test
+    void setAuditPolicy_returnsOk() throws Exception {
+        AuditPolicyDTO policy = new AuditPolicyDTO("Fare", "READ", AuditMode.SAMPLED, 5, null, 0, 0);
+        when(audithService.setAuditPolicy(any(AuditPolicyDTO.class))).thenReturn(policy);
+
+        mockMvc.perform(put("/audith/policy")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(policy)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("SAMPLED"))
+                .andExpect(jsonPath("$.samplePercent").value(5));
+    }
+
+    @Test
+    void setAuditPolicy_invalid_returnsBadRequest() throws Exception {
+        when(audithService.setAuditPolicy(any(AuditPolicyDTO.class)))
+                .thenThrow(new IllegalArgumentException("Sampled policies need a samplePercent between 0 and 100"));
+
+        mockMvc.perform(put("/audith/policy")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entity\":\"Fare\",\"operation\":\"READ\",\"mode\":\"SAMPLED\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void removeAuditPolicy_unknown_returnsNotFound() throws Exception {
+        when(audithService.removeAuditPolicy("Fare", "READ")).thenReturn(false);
+
+        mockMvc.perform(delete("/audith/policy/Fare/READ"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchAudits_returnsOk() throws Exception {
+        AuditSearchResultDTO result = new AuditSearchResultDTO(new ArrayList<>(), null, null, null);
+        when(audithService.searchAudits(any(AuditSearchRequest.class))).thenReturn(result);
+
+        mockMvc.perform(post("/audith/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entity\":\"Register\",\"path\":\"plate\",\"value\":\"P012345\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.audits").isArray());
+    }
+
+    @Test
+    void searchAudits_invalid_returnsBadRequest() throws Exception {
+        when(audithService.searchAudits(any(AuditSearchRequest.class)))
+                .thenThrow(new ValidationException("La búsqueda por path requiere un valor."));
+
+        mockMvc.perform(post("/audith/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\":\"plate\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.err").value("La búsqueda por path requiere un valor."));
+    }
+
+    @Test
+    void exportAudits_csvGzip_streamsAttachment() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+        when(audithService.exportAudits(eq(startDate), eq(endDate), eq(AuditExportFormat.CSV_GZIP), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream outputStream = invocation.getArgument(3);
+                    outputStream.write("audit".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/audith/export")
+                        .param("startDate", "2024-01-01T00:00:00")
+                        .param("endDate", "2024-03-31T23:59:59")
+                        .param("format", "CSV_GZIP"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"audits-2024-01-01-2024-03-31.csv.gz\""))
+                .andExpect(content().string("audit"));
+    }
+
+    @Test
+    void exportAudits_invertedRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/audith/export")
+                        .param("startDate", "2024-03-31T00:00:00")
+                        .param("endDate", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAuditStats_returnsOk() throws Exception {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 1, 31);
+        when(audithService.getAuditStats(startDate, endDate, "Register", StatsGranularity.DAY))
+                .thenReturn(List.of(new AuditStatsDTO(startDate.atStartOfDay(), "Register", "CREATE", "SUCCESS", 12)));
+
+        mockMvc.perform(get("/audith/stats")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-31")
+                        .param("entity", "Register"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].operation").value("CREATE"))
+                .andExpect(jsonPath("$[0].count").value(12));
+    }
+
+    @Test
+    void getAuditStats_invalidRange_returnsBadRequest() throws Exception {
+        when(audithService.getAuditStats(any(), any(), isNull(), eq(StatsGranularity.HOUR)))
+                .thenThrow(new ValidationException("La fecha de inicio no puede ser posterior a la fecha de fin."));
+
+        mockMvc.perform(get("/audith/stats")
+                        .param("startDate", "2024-02-01")
+                        .param("endDate", "2024-01-01")
+                        .param("granularity", "HOUR"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.err").value("La fecha de inicio no puede ser posterior a la fecha de fin."));
+    }
 }
@@ -8,7 +8,11 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ActiveVehicleDTO;
+import org.grupo.uno.parking.data.dto.CacheRegionStatsDTO;
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
 import org.grupo.uno.parking.data.dto.ParkingDTO;
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
 import org.grupo.uno.parking.data.model.Parking;
 import org.grupo.uno.parking.data.service.ParkingService;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +24,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -182,4 +188,74 @@ class ParkingControllerTest {
         mockMvc.perform(delete("/parkings/parkingDelete/1"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetOccupancy() throws Exception {
+        when(parkingService.getOccupancy(1L)).thenReturn(new OccupancyDTO(1L, 10, 3, 7));
+
+        mockMvc.perform(get("/parkings/1/occupancy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.occupied").value(3))
+                .andExpect(jsonPath("$.available").value(7));
+    }
+
+    @Test
+    void testGetOccupancy_NotFound() throws Exception {
+        when(parkingService.getOccupancy(1L)).thenThrow(new EntityNotFoundException("Parking with id: 1 does not exist"));
+
+        mockMvc.perform(get("/parkings/1/occupancy"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetStats() throws Exception {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+        when(parkingService.getStats(1L, start, end)).thenReturn(new ParkingStatsDTO(1L, start, end, 12,
+                new BigDecimal("150.00"), 720, Map.of(2L, new BigDecimal("150.00")), List.of()));
+
+        mockMvc.perform(get("/parkings/1/stats").param("startDate", "2024-01-01").param("endDate", "2024-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(12))
+                .andExpect(jsonPath("$.minutes").value(720))
+                .andExpect(jsonPath("$.revenueByFare['2']").value(150.00));
+    }
+
+    @Test
+    void testGetStats_NotFound() throws Exception {
+        when(parkingService.getStats(anyLong(), any(), any())).thenThrow(new EntityNotFoundException("Parking with id: 1 does not exist"));
+
+        mockMvc.perform(get("/parkings/1/stats").param("startDate", "2024-01-01").param("endDate", "2024-12-31"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetCacheStats() throws Exception {
+        when(parkingService.getCacheStats()).thenReturn(List.of(new CacheRegionStatsDTO("parking", 9, 1, 1, 0.9, 1)));
+
+        mockMvc.perform(get("/parkings/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].region").value("parking"))
+                .andExpect(jsonPath("$[0].hitRate").value(0.9));
+    }
+
+    @Test
+    void testRebuildStats() throws Exception {
+        when(parkingService.rebuildStats(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31))).thenReturn(240L);
+
+        mockMvc.perform(post("/parkings/stats/rebuild").param("startDate", "2024-01-01").param("endDate", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(240));
+    }
+
+    @Test
+    void testGetActiveVehicles() throws Exception {
+        when(parkingService.getActiveVehicles(1L)).thenReturn(List.of(
+                new ActiveVehicleDTO(5L, "P012345", java.time.LocalDateTime.of(2024, 1, 1, 8, 0), 1L)));
+
+        mockMvc.perform(get("/parkings/1/active-vehicles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].plate").value("P012345"))
+                .andExpect(jsonPath("$[0].startDate").value("2024-01-01 08:00:00"));
+    }
+}
@@ -2,12 +2,15 @@ package org.grupo.uno.parking.data.controller;
 
 
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.grupo.uno.parking.data.dto.BatchResultDTO;
 import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.dto.ReportFormat;
 import org.grupo.uno.parking.data.exceptions.NoRegistersFoundException;
+import org.grupo.uno.parking.data.exceptions.ParkingFullException;
 import org.grupo.uno.parking.data.service.IRegisterService;
+import org.grupo.uno.parking.data.service.ReportCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.grupo.uno.parking.data.service.JwtService;
-import org.grupo.uno.parking.data.service.PdfService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -21,15 +24,20 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -46,19 +54,19 @@ class RegisterControllerTest {
     @Mock
     private IRegisterService registerService;
 
+    @Mock
+    private ReportCache reportCache;
+
     @MockBean
     private JwtService jwtService;
 
-    @Mock
-    private PdfService pdfService;
-
     @InjectMocks
     private RegisterController registerController;
 
     private final LocalDateTime fixedDateTime = LocalDateTime.of(2024, 1, 1, 12, 0);
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(registerController).build();
     }
@@ -89,6 +97,16 @@ class RegisterControllerTest {
     }
 
 
+    @Test
+    void registroDeEntrada_parkingFull_returnsConflict() throws Exception {
+        when(registerService.registroDeEntrada("ABC123", 1)).thenThrow(new ParkingFullException("Parking 1 is full"));
+
+        mockMvc.perform(post("/registers/entrada")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"plate\": \"ABC123\", \"parkingId\": 1}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void registroDeEntrada_invalidRequest_returnsBadRequest() throws Exception {
         mockMvc.perform(post("/registers/entrada")
@@ -126,6 +144,42 @@ class RegisterControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void registroDeEntradaBatch_returnsPerEventResults() throws Exception {
+        when(registerService.registroDeEntradaBatch(anyList())).thenReturn(List.of(
+                new BatchResultDTO(0, "ABC123", 201, null, null),
+                new BatchResultDTO(1, "XYZ789", 409, null, "Parking 1 is full")));
+
+        mockMvc.perform(post("/registers/entrada/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"plate\": \"ABC123\", \"parkingId\": 1}, {\"plate\": \"XYZ789\", \"parkingId\": 1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(409));
+    }
+
+    @Test
+    void registroDeEntradaBatch_emptyList_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/registers/entrada/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        verify(registerService, never()).registroDeEntradaBatch(anyList());
+    }
+
+    @Test
+    void registroDeSalidaBatch_returnsPerEventResults() throws Exception {
+        when(registerService.registroDeSalidaBatch(List.of("ABC123"))).thenReturn(List.of(
+                new BatchResultDTO(0, "ABC123", 200, null, null)));
+
+        mockMvc.perform(put("/registers/salida/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"ABC123\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].plate").value("ABC123"))
+                .andExpect(jsonPath("$[0].status").value(200));
+    }
+
     @Test
     void getAllRegisters_returnsOk() throws Exception {
 
@@ -311,29 +365,66 @@ class RegisterControllerTest {
                 .andExpect(jsonPath("$[0].plate").value("ABC123"));
     }
 
+    @Test
+    void streamRegistersByParkingId_writesNdjson() throws Exception {
+        when(registerService.exportReport(eq(1L), any(), any(), eq(ReportFormat.NDJSON), any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(4);
+            outputStream.write("{\"plate\":\"ABC123\"}\n".getBytes());
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/registers/report/1/2024-01-01/2024-01-31/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"plate\":\"ABC123\"}\n"));
+        verify(registerService).exportReport(eq(1L), eq(LocalDateTime.of(2024, 1, 1, 0, 0)),
+                eq(LocalDate.of(2024, 1, 31).atTime(LocalTime.MAX)), eq(ReportFormat.NDJSON), any());
+    }
+
     @Test
     void getRegistersByParkingIdPDF_found_returnsPdf() throws Exception {
-        List<RegisterDTO> registers = List.of(
-                new RegisterDTO(1L, "ABC123", true,
-                        fixedDateTime,
-                        fixedDateTime.plusHours(1),
-                        1L, 1L,
-                        BigDecimal.valueOf(10.00))
-        );
+        when(registerService.hasReportRows(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(registerService.exportReport(eq(1L), any(), any(), eq(ReportFormat.PDF), any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(4);
+            outputStream.write("%PDF-1.7".getBytes());
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(post("/registers/generatePDF/1/2024-01-01/2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().string("%PDF-1.7"));
+    }
 
-        when(registerService.generateReportByParkingIdPDF(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(registers);
-        when(pdfService.generatePdfFromJson(any())).thenReturn(new byte[0]);
+    @Test
+    void getRegistersByParkingIdPDF_cached_skipsExistsQuery() throws Exception {
+        when(reportCache.contains(eq(1L), any(), any(), eq(ReportFormat.PDF))).thenReturn(true);
 
-        mockMvc.perform(post("/registers/generatePDF/1/2024-01-01/2024-01-31"))
-                .andExpect(status().isOk());
+        MvcResult result = mockMvc.perform(post("/registers/generatePDF/1/2024-01-01/2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        verify(registerService, never()).hasReportRows(any(), any(), any());
+        // The cache is served by exportReport, which also records the REPORT audit
+        verify(registerService).exportReport(eq(1L), any(), any(), eq(ReportFormat.PDF), any());
     }
 
     @Test
     void getRegistersByParkingIdPDF_noRegisters_returnsNotFound() throws Exception {
-        when(registerService.generateReportByParkingIdPDF(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenThrow(new NoRegistersFoundException("No registers found"));
+        when(registerService.hasReportRows(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
 
         mockMvc.perform(post("/registers/generatePDF/1/2024-01-01/2024-01-31"))
                 .andExpect(status().isNotFound());
+        verify(registerService, never()).exportReport(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -468,7 +559,7 @@ class RegisterControllerTest {
 
     @Test
     void getRegistersByParkingIdPDF_internalServerError_returnsInternalServerError() throws Exception {
-        when(registerService.generateReportByParkingIdPDF(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenThrow(new RuntimeException("Unexpected error"));
+        when(registerService.hasReportRows(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenThrow(new RuntimeException("Unexpected error"));
 
         mockMvc.perform(post("/registers/generatePDF/1/2024-01-01/2024-01-31"))
                 .andExpect(status().isInternalServerError());
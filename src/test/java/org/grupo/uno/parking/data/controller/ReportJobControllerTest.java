@@ -0,0 +1,121 @@
+package org.grupo.uno.parking.data.controller;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.dto.ReportJobDTO;
+import org.grupo.uno.parking.data.dto.ReportJobStatus;
+import org.grupo.uno.parking.data.exceptions.ReportQueueFullException;
+import org.grupo.uno.parking.data.service.IReportJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+class ReportJobControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private IReportJobService reportJobService;
+
+    @InjectMocks
+    private ReportJobController reportJobController;
+
+    private final LocalDate startDate = LocalDate.of(2024, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2024, 1, 31);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(reportJobController).build();
+    }
+
+    private ReportJobDTO job(ReportJobStatus status) {
+        return new ReportJobDTO("job-1", 1L, startDate, endDate, ReportFormat.PDF, status, 0, null,
+                LocalDateTime.of(2024, 2, 1, 8, 0), null);
+    }
+
+    @Test
+    void submitReportJob_returnsAccepted() throws Exception {
+        when(reportJobService.submit(1L, startDate, endDate, ReportFormat.PDF)).thenReturn(job(ReportJobStatus.QUEUED));
+
+        mockMvc.perform(post("/registers/report-jobs/1/2024-01-01/2024-01-31"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.startDate").value("2024-01-01"));
+    }
+
+    @Test
+    void submitReportJob_queueFull_returnsServiceUnavailable() throws Exception {
+        when(reportJobService.submit(eq(1L), eq(startDate), eq(endDate), eq(ReportFormat.NDJSON)))
+                .thenThrow(new ReportQueueFullException("La cola de reportes está llena"));
+
+        mockMvc.perform(post("/registers/report-jobs/1/2024-01-01/2024-01-31?format=NDJSON"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void submitReportJob_invertedRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/registers/report-jobs/1/2024-01-31/2024-01-01"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(reportJobService);
+    }
+
+    @Test
+    void getReportJob_unknown_returnsNotFound() throws Exception {
+        when(reportJobService.getJob("nope")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/registers/report-jobs/nope"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void downloadReportJob_done_returnsFile() throws Exception {
+        when(reportJobService.getJob("job-1")).thenReturn(Optional.of(job(ReportJobStatus.DONE)));
+        when(reportJobService.getJobFile("job-1")).thenReturn(new ByteArrayResource("%PDF-1.7".getBytes()) {
+            @Override
+            public String getFilename() {
+                return "job-1.pdf";
+            }
+        });
+
+        mockMvc.perform(get("/registers/report-jobs/job-1/file"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().string("%PDF-1.7"));
+    }
+
+    @Test
+    void downloadReportJob_running_returnsConflict() throws Exception {
+        when(reportJobService.getJob("job-1")).thenReturn(Optional.of(job(ReportJobStatus.RUNNING)));
+        when(reportJobService.getJobFile("job-1")).thenThrow(new IllegalStateException("Report job job-1 is RUNNING"));
+
+        mockMvc.perform(get("/registers/report-jobs/job-1/file"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void downloadReportJob_unknown_returnsNotFound() throws Exception {
+        when(reportJobService.getJob("nope")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/registers/report-jobs/nope/file"))
+                .andExpect(status().isNotFound());
+        verify(reportJobService, never()).getJobFile("nope");
+    }
+}
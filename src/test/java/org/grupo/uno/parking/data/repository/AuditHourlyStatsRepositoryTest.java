@@ -0,0 +1,55 @@
+package org.grupo.uno.parking.data.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.grupo.uno.parking.data.dto.AuditStatsDTO;
+import org.grupo.uno.parking.data.dto.StatsGranularity;
+import org.grupo.uno.parking.data.model.AuditHourlyStats;
+import org.grupo.uno.parking.data.model.AuditHourlyStatsId;
+import org.grupo.uno.parking.data.service.AuditCounters;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+class AuditHourlyStatsRepositoryTest {
+
+    @Autowired
+    private AuditHourlyStatsRepository statsRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void summarize_rollsHoursUpByDay() {
+        persist(LocalDateTime.of(2024, 1, 1, 9, 0), "Register", 3);
+        persist(LocalDateTime.of(2024, 1, 1, 17, 0), "Register", 4);
+        persist(LocalDateTime.of(2024, 1, 2, 8, 0), "Register", 1);
+        persist(LocalDateTime.of(2024, 1, 1, 9, 0), "Fare", 5);
+
+        AuditCounters counters = new AuditCounters(statsRepository, new TransactionTemplate(), 31);
+        List<AuditStatsDTO> stats = counters.getStats(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2),
+                "register", StatsGranularity.DAY);
+
+        assertEquals(2, stats.size());
+        assertEquals(LocalDate.of(2024, 1, 1).atStartOfDay(), stats.get(0).getPeriod());
+        assertEquals(7, stats.get(0).getCount());
+        assertEquals(LocalDate.of(2024, 1, 2).atStartOfDay(), stats.get(1).getPeriod());
+        assertEquals(1, stats.get(1).getCount());
+    }
+
+    private void persist(LocalDateTime bucket, String entity, long count) {
+        entityManager.persist(new AuditHourlyStats(new AuditHourlyStatsId(bucket, entity, "CREATE", "SUCCESS"), count));
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,102 @@
+package org.grupo.uno.parking.data.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.grupo.uno.parking.data.configuration.JacksonConfig;
+import org.grupo.uno.parking.data.configuration.JsonbConfig;
+import org.grupo.uno.parking.data.dto.AuditExportRow;
+import org.grupo.uno.parking.data.model.Audith;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+@Import({JacksonConfig.class, JsonbConfig.class})
+class AudithRepositoryTest {
+
+    @Autowired
+    private AudithRepository audithRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void save_roundTripsRequestAndResponseAsJson() {
+        Audith audit = audit(LocalDateTime.of(2024, 1, 15, 12, 0));
+        audit.setRequest(Map.of("registerId", 7, "plate", "ABC123", "tags", List.of("a", "b")));
+        long id = audithRepository.save(audit).getAuditId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Audith stored = audithRepository.findById(id).orElseThrow();
+
+        assertEquals("ABC123", stored.getRequest().get("plate"));
+        assertEquals(List.of("a", "b"), stored.getRequest().get("tags"));
+        assertEquals(7, stored.getResponse().get("registerId"));
+        assertEquals(false, stored.getResponse().get("status"));
+    }
+
+    @Test
+    void streamByStartDateBetween_projectsAuditsInRangeOldestFirst() {
+        audithRepository.save(audit(LocalDateTime.of(2024, 1, 20, 9, 0)));
+        audithRepository.save(audit(LocalDateTime.of(2024, 1, 15, 12, 0)));
+        audithRepository.save(audit(LocalDateTime.of(2024, 3, 1, 0, 0)));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AuditExportRow> rows;
+        try (Stream<AuditExportRow> audits = audithRepository.streamByStartDateBetween(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 31, 23, 59))) {
+            rows = audits.toList();
+        }
+
+        assertEquals(2, rows.size());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 12, 0), rows.get(0).startDate());
+        assertEquals(7, rows.get(0).response().get("registerId"));
+    }
+
+    @Test
+    void search_appliesOnlyTheGivenFiltersAndResumesAfterTheCursor() {
+        Audith newest = audithRepository.save(audit(LocalDateTime.of(2024, 1, 20, 9, 0)));
+        Audith middle = audithRepository.save(audit(LocalDateTime.of(2024, 1, 15, 12, 0)));
+        audithRepository.save(audit(LocalDateTime.of(2024, 1, 10, 8, 0)));
+        Audith other = audit(LocalDateTime.of(2024, 1, 18, 0, 0));
+        other.setEntity("Parking");
+        audithRepository.save(other);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Audith> firstPage = audithRepository.search("register", null, null, null, null, null, null, 0, 2);
+        List<Audith> nextPage = audithRepository.search("register", "UPDATE", null, null, null, null,
+                middle.getStartDate(), middle.getAuditId(), 2);
+        List<Audith> all = audithRepository.search(null, null, null, null, null, null, null, 0, 10);
+
+        assertEquals(List.of(newest.getAuditId(), middle.getAuditId()),
+                firstPage.stream().map(Audith::getAuditId).toList());
+        assertEquals(1, nextPage.size());
+        assertEquals(LocalDateTime.of(2024, 1, 10, 8, 0), nextPage.get(0).getStartDate());
+        assertEquals(4, all.size());
+    }
+
+    private Audith audit(LocalDateTime startDate) {
+        Audith audit = new Audith();
+        audit.setEntity("Register");
+        audit.setOperation("UPDATE");
+        audit.setDescription("Registro actualizado");
+        audit.setStartDate(startDate);
+        audit.setResult("SUCCESS");
+        audit.setResponse(Map.of("registerId", 7, "status", false));
+        return audit;
+    }
+}
@@ -0,0 +1,103 @@
+package org.grupo.uno.parking.data.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.grupo.uno.parking.data.dto.CacheRegionStatsDTO;
+import org.grupo.uno.parking.data.model.Parking;
+import org.grupo.uno.parking.data.service.EntityCacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+// Sin transacción de prueba: cada llamada abre su propia sesión, como una petición real
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+@Import(EntityCacheStats.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ParkingRepositoryTest {
+
+    @Autowired
+    private ParkingRepository parkingRepository;
+
+    @Autowired
+    private ParkingDailyStatsRepository statsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityCacheStats entityCacheStats;
+
+    @AfterEach
+    void tearDown() {
+        parkingRepository.deleteAll();
+    }
+
+    @Test
+    void findById_secondLookupIsServedFromTheCache() {
+        long id = persistParking().getParkingId();
+        CacheRegionStatsDTO before = region();
+
+        assertTrue(parkingRepository.findById(id).isPresent());
+        assertTrue(parkingRepository.findById(id).isPresent());
+
+        CacheRegionStatsDTO after = region();
+        assertEquals(1, after.getMisses() - before.getMisses());
+        assertEquals(1, after.getHits() - before.getHits());
+    }
+
+    // H2 no admite ON CONFLICT ... DO UPDATE; deleteRange es una consulta nativa @Modifying igual que upsert
+    @Test
+    void statsWrite_keepsTheCachedParking() {
+        long id = persistParking().getParkingId();
+        assertTrue(parkingRepository.findById(id).isPresent());
+        CacheRegionStatsDTO before = region();
+
+        statsRepository.deleteRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+        assertTrue(parkingRepository.findById(id).isPresent());
+
+        CacheRegionStatsDTO after = region();
+        assertEquals(1, after.getHits() - before.getHits());
+        assertEquals(0, after.getMisses() - before.getMisses());
+    }
+
+    @Test
+    void save_invalidatesTheCachedParking() {
+        long id = persistParking().getParkingId();
+        Parking parking = parkingRepository.findById(id).orElseThrow();
+
+        parking.setSpaces(80);
+        parkingRepository.save(parking);
+
+        assertEquals(80, parkingRepository.findById(id).orElseThrow().getSpaces());
+    }
+
+    private CacheRegionStatsDTO region() {
+        return entityCacheStats.getRegions().stream()
+                .filter(region -> region.getRegion().equals("parking"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Parking persistParking() {
+        Parking parking = new Parking();
+        parking.setName("Central");
+        parking.setAddress("Zona 1");
+        parking.setPhone("12345678");
+        parking.setSpaces(40);
+        parking.setStatus(true);
+        Parking saved = parkingRepository.save(parking);
+        entityManagerFactory.getCache().evictAll();
+        return saved;
+    }
+}
@@ -0,0 +1,192 @@
+package org.grupo.uno.parking.data.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.model.Fare;
+import org.grupo.uno.parking.data.model.Parking;
+import org.grupo.uno.parking.data.model.Register;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false"
+})
+@Import(RegisterRepositoryTest.BatchCountingConfig.class)
+class RegisterRepositoryTest {
+
+    @Autowired
+    private RegisterRepository registerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void saveAll_sendsInsertsAsSingleJdbcBatch() {
+        Parking parking = persistParking();
+        BatchCountingConfig.reset();
+
+        List<Register> registers = IntStream.range(0, 20).mapToObj(i -> {
+            Register register = new Register();
+            register.setPlate(String.format("P%05d", i));
+            register.setParking(parking);
+            register.setStartDate(LocalDateTime.now());
+            register.setStatus(true);
+            return register;
+        }).toList();
+        registerRepository.saveAll(registers);
+        entityManager.flush();
+
+        assertEquals(20, BatchCountingConfig.ADDED.get());
+        assertEquals(1, BatchCountingConfig.EXECUTED.get());
+        assertTrue(registers.stream().allMatch(register -> register.getRegisterId() > 0));
+    }
+
+    @Test
+    void streamReportByParkingIdAndDateRange_projectsClosedRegistersInRange() {
+        Parking parking = persistParking();
+        Fare fare = entityManager.persist(new Fare(null, "Diurna", "06:00", "18:00", 10.0, true));
+        LocalDateTime endDate = LocalDateTime.of(2024, 1, 15, 12, 0);
+        entityManager.persist(closedRegister("ABC123", parking, fare, endDate, BigDecimal.TEN));
+        entityManager.persist(closedRegister("XYZ789", parking, fare, endDate.plusMonths(1), BigDecimal.ONE));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<RegisterDTO> report;
+        try (Stream<RegisterDTO> registers = registerRepository.streamReportByParkingIdAndDateRange(parking.getParkingId(),
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 31, 23, 59))) {
+            report = registers.toList();
+        }
+
+        assertEquals(1, report.size());
+        assertEquals("ABC123", report.get(0).getPlate());
+        assertEquals(parking.getParkingId(), report.get(0).getParkingId());
+        assertEquals(fare.getFareId(), report.get(0).getFareId());
+        assertEquals(0, BigDecimal.TEN.compareTo(report.get(0).getTotal()));
+    }
+
+    @Test
+    void closeRegister_onlyClosesAnOpenRegisterOnce() {
+        Parking parking = persistParking();
+        Fare fare = entityManager.persist(new Fare(null, "Diurna", "06:00", "18:00", 10.0, true));
+        Register register = new Register();
+        register.setPlate("ABC123");
+        register.setParking(parking);
+        register.setStartDate(LocalDateTime.now().minusHours(1));
+        register.setStatus(true);
+        long registerId = entityManager.persistAndFlush(register).getRegisterId();
+        LocalDateTime endDate = LocalDateTime.now();
+
+        assertEquals(1, registerRepository.closeRegister(registerId, endDate, fare, BigDecimal.TEN));
+        assertEquals(0, registerRepository.closeRegister(registerId, endDate.plusMinutes(1), fare, BigDecimal.ONE));
+        entityManager.clear();
+
+        Register closed = registerRepository.findById(registerId).orElseThrow();
+        assertEquals(0, BigDecimal.TEN.compareTo(closed.getTotal()));
+        assertFalse(closed.isStatus());
+    }
+
+    private Parking persistParking() {
+        Parking parking = new Parking();
+        parking.setName("Parking A");
+        parking.setAddress("Address A");
+        parking.setPhone("12345678");
+        parking.setSpaces(50);
+        parking.setStatus(true);
+        return entityManager.persistAndFlush(parking);
+    }
+
+    private Register closedRegister(String plate, Parking parking, Fare fare, LocalDateTime endDate, BigDecimal total) {
+        Register register = new Register();
+        register.setPlate(plate);
+        register.setParking(parking);
+        register.setFare(fare);
+        register.setStartDate(endDate.minusHours(1));
+        register.setEndDate(endDate);
+        register.setTotal(total);
+        return register;
+    }
+
+    @TestConfiguration
+    static class BatchCountingConfig {
+
+        static final AtomicInteger ADDED = new AtomicInteger();
+        static final AtomicInteger EXECUTED = new AtomicInteger();
+
+        static void reset() {
+            ADDED.set(0);
+            EXECUTED.set(0);
+        }
+
+        @Bean
+        static BeanPostProcessor batchCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return countingConnection(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection countingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement) {
+                            return countingStatement(statement);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement countingStatement(PreparedStatement statement) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("addBatch") && method.getParameterCount() == 0) {
+                            ADDED.incrementAndGet();
+                        } else if (method.getName().equals("executeBatch")) {
+                            EXECUTED.incrementAndGet();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
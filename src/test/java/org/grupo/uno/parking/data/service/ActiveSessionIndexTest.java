@@ -0,0 +1,73 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.repository.RegisterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionIndexTest {
+
+    @Mock
+    private RegisterRepository registerRepository;
+
+    @InjectMocks
+    private ActiveSessionIndex activeSessionIndex;
+
+    private LocalDateTime startDate;
+
+    @BeforeEach
+    void setUp() {
+        startDate = LocalDateTime.of(2024, 1, 1, 8, 0);
+    }
+
+    @Test
+    void load_indexesActiveRegistersByPlateAndParking() {
+        when(registerRepository.findActiveSessions())
+                .thenReturn(Collections.singletonList(new Object[]{7L, "ABC123", startDate, 2L}));
+
+        activeSessionIndex.load();
+
+        assertTrue(activeSessionIndex.isLoaded());
+        assertEquals(7L, activeSessionIndex.find("ABC123").get().registerId());
+        assertEquals(1, activeSessionIndex.findByParking(2L).size());
+    }
+
+    @Test
+    void reserve_samePlateTwice_secondReservationFails() {
+        assertTrue(activeSessionIndex.reserve("ABC123", 1L, startDate));
+        assertFalse(activeSessionIndex.reserve("ABC123", 2L, startDate));
+        assertTrue(activeSessionIndex.find("ABC123").isEmpty());
+        assertTrue(activeSessionIndex.findByParking(1L).isEmpty());
+    }
+
+    @Test
+    void cancel_pendingReservation_freesPlate() {
+        activeSessionIndex.reserve("ABC123", 1L, startDate);
+        activeSessionIndex.cancel("ABC123");
+
+        assertTrue(activeSessionIndex.reserve("ABC123", 1L, startDate));
+    }
+
+    @Test
+    void release_removesSessionFromPlateAndParking() {
+        activeSessionIndex.reserve("ABC123", 1L, startDate);
+        activeSessionIndex.activate(5L, "ABC123", startDate, 1L);
+
+        activeSessionIndex.release("ABC123", 4L);
+        assertTrue(activeSessionIndex.find("ABC123").isPresent());
+
+        activeSessionIndex.release("ABC123", 5L);
+        assertTrue(activeSessionIndex.find("ABC123").isEmpty());
+        assertTrue(activeSessionIndex.findByParking(1L).isEmpty());
+    }
+}
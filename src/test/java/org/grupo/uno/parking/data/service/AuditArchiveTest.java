@@ -0,0 +1,172 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.grupo.uno.parking.data.dto.AuditExportFormat;
+import org.grupo.uno.parking.data.dto.AuditExportRow;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class AuditArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2023, 12, 31, 23, 59);
+
+    // Fuera de java.io.tmpdir, que el archivo rechaza
+    private Path directory;
+
+    private AudithRepository audithRepository;
+    private TransactionTemplate transactionTemplate;
+    private AuditArchive archive;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Files.createDirectories(Paths.get("target")), "audit-archive-");
+        audithRepository = mock(AudithRepository.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        archive = new AuditArchive(audithRepository, transactionTemplate,
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                true, directory.toString(), 90, 10, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void constructor_rejectsMissingOrTemporaryDirectory() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThrows(IllegalStateException.class, () -> new AuditArchive(audithRepository, transactionTemplate,
+                objectMapper, true, "", 90, 10, 2, 100));
+        assertThrows(IllegalStateException.class, () -> new AuditArchive(audithRepository, transactionTemplate,
+                objectMapper, true, System.getProperty("java.io.tmpdir") + "/parking-audit-archive", 90, 10, 2, 100));
+        assertFalse(new AuditArchive(audithRepository, transactionTemplate, objectMapper, false, "", 90, 10, 2, 100)
+                .isEnabled());
+    }
+
+    private Audith audit(long id, String entity, LocalDateTime startDate) {
+        Audith audit = new Audith();
+        audit.setAuditId(id);
+        audit.setEntity(entity);
+        audit.setDescription("Registro " + id);
+        audit.setOperation("UPDATE");
+        audit.setStartDate(startDate);
+        audit.setRequest(Map.of("plate", "P" + id));
+        audit.setResult("SUCCESS");
+        return audit;
+    }
+
+    private List<Audith> chunk() {
+        return List.of(
+                audit(1, "Register", LocalDateTime.of(2023, 3, 1, 8, 0)),
+                audit(2, "Fare", LocalDateTime.of(2023, 3, 1, 9, 0)),
+                audit(3, "Register", LocalDateTime.of(2023, 3, 1, 10, 0)),
+                audit(4, "Register", LocalDateTime.of(2023, 3, 1, 11, 0)),
+                audit(5, "Parking", LocalDateTime.of(2023, 3, 2, 8, 0)));
+    }
+
+    @Test
+    void archive_writesDailyFilesAndDeletesTheRows() {
+        when(audithRepository.findByStartDateBeforeOrderByStartDateAscAuditIdAsc(any(), any())).thenReturn(chunk());
+
+        assertEquals(5, archive.archive());
+
+        verify(audithRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L, 4L, 5L));
+        assertTrue(Files.exists(directory.resolve("audits-2023-03-01.ndjson.gz")));
+        assertTrue(Files.exists(directory.resolve("audits-2023-03-02.idx")));
+        assertFalse(Files.exists(directory.resolve("archive.pending")));
+        assertEquals(5, archive.count(START, END, null));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+                archive.read(START, END, null, 0, 10).stream().map(Audith::getAuditId).toList());
+        assertEquals("P3", archive.read(START, END, null, 2, 1).get(0).getRequest().get("plate"));
+    }
+
+    @Test
+    void read_filtersByRangeAndEntity() {
+        when(audithRepository.findByStartDateBeforeOrderByStartDateAscAuditIdAsc(any(), any())).thenReturn(chunk());
+        archive.archive();
+
+        LocalDateTime from = LocalDateTime.of(2023, 3, 1, 9, 30);
+        LocalDateTime to = LocalDateTime.of(2023, 3, 2, 23, 59);
+        assertEquals(3, archive.count(from, to, null));
+        assertEquals(List.of(3L, 4L), archive.read(from, to, "register", 0, 10).stream().map(Audith::getAuditId).toList());
+        assertEquals(1, archive.count(START, END, "Fare"));
+        assertEquals(0, archive.count(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), null));
+    }
+
+    @Test
+    void exportAudits_writesArchivedAuditsAheadOfTheTable() throws Exception {
+        when(audithRepository.findByStartDateBeforeOrderByStartDateAscAuditIdAsc(any(), any())).thenReturn(chunk());
+        archive.archive();
+        LocalDateTime from = LocalDateTime.of(2023, 3, 1, 9, 30);
+        when(audithRepository.streamByStartDateBetween(from, END)).thenReturn(Stream.of(new AuditExportRow(
+                9L, "Register", null, LocalDateTime.of(2023, 6, 1, 0, 0), 1, null, "Registro 9", "UPDATE", "SUCCESS",
+                null, null)));
+        AuditPolicy auditPolicy = mock(AuditPolicy.class);
+        when(auditPolicy.decide(any(), any())).thenReturn(new AuditPolicy.Decision(false, 0));
+        AudithService audithService = new AudithService(audithRepository, mock(AuditWriter.class),
+                mock(AuditJournal.class), auditPolicy, mock(AuditPayloadLimiter.class), archive,
+                mock(AuditCounters.class), mock(AuditCoalescer.class), new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = audithService.exportAudits(from, END, AuditExportFormat.NDJSON, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, rows);
+        assertEquals(List.of(3, 4, 5, 9), lines.stream()
+                .map(line -> Integer.parseInt(line.replaceAll(".*\"auditId\":(\\d+).*", "$1"))).toList());
+        assertTrue(lines.get(0).contains("\"plate\":\"P3\""));
+    }
+
+    @Test
+    void archive_failedDelete_undoesTheChunk() {
+        when(audithRepository.findByStartDateBeforeOrderByStartDateAscAuditIdAsc(any(), any())).thenReturn(chunk());
+        doThrow(new RuntimeException("connection refused")).when(audithRepository).deleteAllByIdInBatch(anyList());
+        when(audithRepository.countByAuditIdIn(anyList())).thenReturn(5L);
+
+        assertThrows(RuntimeException.class, () -> archive.archive());
+
+        assertFalse(Files.exists(directory.resolve("audits-2023-03-01.ndjson.gz")));
+        assertFalse(Files.exists(directory.resolve("archive.pending")));
+        assertEquals(0, archive.count(START, END, null));
+    }
+
+    @Test
+    void archive_commitFailureAfterDelete_keepsTheChunk() {
+        when(audithRepository.findByStartDateBeforeOrderByStartDateAscAuditIdAsc(any(), any())).thenReturn(chunk());
+        doAnswer(invocation -> {
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            throw new RuntimeException("connection reset during commit");
+        }).when(transactionTemplate).execute(any());
+        when(audithRepository.countByAuditIdIn(anyList())).thenReturn(0L);
+
+        assertThrows(RuntimeException.class, () -> archive.archive());
+
+        assertFalse(Files.exists(directory.resolve("archive.pending")));
+        assertEquals(5, archive.count(START, END, null));
+    }
+}
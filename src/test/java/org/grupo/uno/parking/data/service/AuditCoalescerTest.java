@@ -0,0 +1,94 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.grupo.uno.parking.data.model.Audith;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+class AuditCoalescerTest {
+
+    private AuditWriter auditWriter;
+    private AuditJournal auditJournal;
+    private AuditCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        auditWriter = mock(AuditWriter.class);
+        auditJournal = mock(AuditJournal.class);
+        coalescer = new AuditCoalescer(auditWriter, auditJournal, 100);
+    }
+
+    private Audith audit(long parkingId, LocalDateTime startDate) {
+        Audith audit = new Audith();
+        audit.setEntity("Parking");
+        audit.setEntityId(parkingId);
+        audit.setStartDate(startDate);
+        audit.setDescription("Fetch parking by ID");
+        audit.setOperation("GET");
+        audit.setRequest(Map.of("parkingId", String.valueOf(parkingId)));
+        audit.setResult("SUCCESS");
+        return audit;
+    }
+
+    @Test
+    void add_identicalAudits_writesTheFirstRightAwayAndTheRepeatsOnClose() {
+        LocalDateTime first = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Audith audit = audit(1, first);
+
+        assertFalse(coalescer.add(audit, 3600));
+        assertTrue(coalescer.add(audit(1, first.plusSeconds(5)), 3600));
+        assertTrue(coalescer.add(audit(1, first.plusSeconds(10)), 3600));
+        assertFalse(coalescer.add(audit(2, first.plusSeconds(10)), 3600));
+
+        coalescer.flush();
+        verify(auditWriter).enqueue(audit);
+        verify(auditWriter, times(2)).enqueue(any(Audith.class));
+
+        coalescer.shutdown();
+        ArgumentCaptor<Audith> captor = ArgumentCaptor.forClass(Audith.class);
+        verify(auditWriter, times(3)).enqueue(captor.capture());
+        assertEquals(1, audit.getOccurrences());
+        assertNull(audit.getLastDate());
+        Audith repeats = captor.getAllValues().get(2);
+        assertNotSame(audit, repeats);
+        assertEquals(1L, repeats.getEntityId());
+        assertEquals(2, repeats.getOccurrences());
+        assertEquals(first.plusSeconds(5), repeats.getStartDate());
+        assertEquals(first.plusSeconds(10), repeats.getLastDate());
+        assertEquals(audit.getRequest(), repeats.getRequest());
+        assertEquals(0, coalescer.getPending());
+    }
+
+    @Test
+    void add_afterWindowCloses_startsANewRow() {
+        when(auditJournal.isEnabled()).thenReturn(true);
+        LocalDateTime first = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        assertFalse(coalescer.add(audit(1, first), 0));
+        assertFalse(coalescer.add(audit(1, first.plusSeconds(1)), 0));
+
+        verify(auditJournal).append(argThat(a -> a.getStartDate().equals(first) && a.getOccurrences() == 1));
+        coalescer.flush();
+        verify(auditJournal, times(2)).append(any(Audith.class));
+        verifyNoInteractions(auditWriter);
+    }
+
+    @Test
+    void add_tooManyPending_stopsTrackingTheNewWindow() {
+        coalescer = new AuditCoalescer(auditWriter, auditJournal, 1);
+        LocalDateTime first = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        List.of(1L, 2L, 3L).forEach(id -> assertFalse(coalescer.add(audit(id, first), 3600)));
+        assertFalse(coalescer.add(audit(2, first.plusSeconds(1)), 3600));
+
+        verify(auditWriter, times(4)).enqueue(any(Audith.class));
+        assertEquals(1, coalescer.getPending());
+    }
+}
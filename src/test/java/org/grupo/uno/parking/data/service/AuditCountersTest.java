@@ -0,0 +1,129 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import jakarta.validation.ValidationException;
+import org.grupo.uno.parking.data.dto.AuditStatsDTO;
+import org.grupo.uno.parking.data.dto.StatsGranularity;
+import org.grupo.uno.parking.data.repository.AuditHourlyStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+class AuditCountersTest {
+
+    private AuditHourlyStatsRepository statsRepository;
+    private AuditCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        statsRepository = mock(AuditHourlyStatsRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        counters = new AuditCounters(statsRepository, transactionTemplate, 31);
+    }
+
+    @Test
+    void flush_upsertsCountsOncePerKey() {
+        counters.increment("Register", "CREATE", "SUCCESS");
+        counters.increment("Register", "CREATE", "SUCCESS");
+        counters.increment("Fare", "READ", null);
+
+        counters.flush();
+        counters.flush();
+
+        verify(statsRepository).upsert(any(LocalDateTime.class), eq("Register"), eq("CREATE"), eq("SUCCESS"), eq(2L));
+        verify(statsRepository).upsert(any(LocalDateTime.class), eq("Fare"), eq("READ"), eq(""), eq(1L));
+        verifyNoMoreInteractions(statsRepository);
+    }
+
+    @Test
+    void flush_failure_keepsCountsForTheNextFlush() {
+        doThrow(new DataAccessResourceFailureException("down")).doReturn(1)
+                .when(statsRepository).upsert(any(), anyString(), anyString(), anyString(), anyLong());
+        counters.increment("Register", "CREATE", "SUCCESS");
+        counters.increment("Register", "CREATE", "SUCCESS");
+
+        counters.flush();
+        counters.increment("Register", "CREATE", "SUCCESS");
+        counters.flush();
+
+        verify(statsRepository).upsert(any(LocalDateTime.class), eq("Register"), eq("CREATE"), eq("SUCCESS"), eq(3L));
+    }
+
+    @Test
+    void flush_concurrentIncrements_areNeverLost() throws Exception {
+        AtomicLong flushed = new AtomicLong();
+        doAnswer(invocation -> {
+            flushed.addAndGet(invocation.getArgument(4));
+            return 1;
+        }).when(statsRepository).upsert(any(), anyString(), anyString(), anyString(), anyLong());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            workers.add(executor.submit(() -> {
+                for (int n = 0; n < 20000; n++) {
+                    counters.increment("Register", "CREATE", "SUCCESS");
+                }
+            }));
+        }
+
+        while (workers.stream().anyMatch(worker -> !worker.isDone())) {
+            counters.flush();
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        counters.flush();
+        executor.shutdown();
+
+        assertEquals(80000, flushed.get());
+    }
+
+    @Test
+    void getStats_mapsRows() {
+        LocalDateTime day = LocalDate.of(2024, 1, 1).atStartOfDay();
+        when(statsRepository.summarize(day, day.plusDays(2), null, "day"))
+                .thenReturn(List.<Object[]>of(new Object[]{Timestamp.valueOf(day), "Register", "CREATE", "SUCCESS", 5L}));
+
+        List<AuditStatsDTO> stats = counters.getStats(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2),
+                null, StatsGranularity.DAY);
+
+        assertEquals(1, stats.size());
+        assertEquals(day, stats.get(0).getPeriod());
+        assertEquals(5L, stats.get(0).getCount());
+    }
+
+    @Test
+    void getStats_invalidRange_throwsValidationException() {
+        LocalDate today = LocalDate.now();
+
+        assertThrows(ValidationException.class,
+                () -> counters.getStats(today, today.minusDays(1), null, StatsGranularity.HOUR));
+        assertThrows(ValidationException.class,
+                () -> counters.getStats(today.minus(31, ChronoUnit.DAYS), today, null, StatsGranularity.DAY));
+        verifyNoInteractions(statsRepository);
+    }
+}
@@ -0,0 +1,51 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+class AuditDiffTest {
+
+    @Test
+    void between_keepsChangedFieldsAndKeys() {
+        Map<String, Object> before = new HashMap<>(Map.of("id", 1L, "name", "Diurna", "price", 10.0, "status", true));
+        Map<String, Object> after = new HashMap<>(Map.of("id", 1L, "name", "Diurna", "price", 12.5, "status", true));
+
+        AuditDiff.Changes changes = AuditDiff.between(before, after, "id");
+
+        assertEquals(Map.of("id", 1L, "price", 10.0), changes.before());
+        assertEquals(Map.of("id", 1L, "price", 12.5), changes.after());
+    }
+
+    @Test
+    void between_nullsAndScaleOnlyDecimals() {
+        Map<String, Object> before = new HashMap<>();
+        before.put("registerId", 7L);
+        before.put("endDate", null);
+        before.put("total", new BigDecimal("10.0"));
+        Map<String, Object> after = new HashMap<>(before);
+        after.put("endDate", "2024-01-15T12:00");
+        after.put("total", new BigDecimal("10.00"));
+
+        AuditDiff.Changes changes = AuditDiff.between(before, after, "registerId");
+
+        assertEquals(2, changes.after().size());
+        assertNull(changes.before().get("endDate"));
+        assertEquals("2024-01-15T12:00", changes.after().get("endDate"));
+        assertFalse(changes.after().containsKey("total"));
+    }
+
+    @Test
+    void between_noChanges_keepsOnlyKeys() {
+        Map<String, Object> snapshot = Map.of("parkingId", 3L, "name", "Parking A");
+
+        AuditDiff.Changes changes = AuditDiff.between(snapshot, snapshot, "parkingId");
+
+        assertEquals(Map.of("parkingId", 3L), changes.before());
+        assertEquals(Map.of("parkingId", 3L), changes.after());
+    }
+}
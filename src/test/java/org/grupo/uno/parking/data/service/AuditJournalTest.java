@@ -0,0 +1,221 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class AuditJournalTest {
+
+    // Fuera de java.io.tmpdir, que el journal rechaza
+    private Path directory;
+
+    private AudithRepository audithRepository;
+    private final List<Audith> saved = Collections.synchronizedList(new ArrayList<>());
+    private final List<AuditJournal> journals = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Files.createDirectories(Paths.get("target")), "audit-journal-");
+        audithRepository = mock(AudithRepository.class);
+        when(audithRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Audith> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journals.forEach(AuditJournal::shutdown);
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    private AuditJournal journal(AudithRepository repository, int segmentBytes) {
+        AuditJournal journal = new AuditJournal(repository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                true, directory.toString(), segmentBytes, 50, 20, false, 5000, 3);
+        journals.add(journal);
+        return journal;
+    }
+
+    private Audith audit(String description) {
+        Audith audit = new Audith();
+        audit.setEntity("Register");
+        audit.setDescription(description);
+        audit.setOperation("UPDATE");
+        audit.setStartDate(LocalDateTime.of(2024, 1, 15, 12, 0));
+        audit.setRequest(Map.of("plate", "ABC123"));
+        audit.setResult("SUCCESS");
+        return audit;
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    @Test
+    void append_isShippedInBatchesAndOffsetAdvances() {
+        AuditJournal journal = journal(audithRepository, 1 << 16);
+
+        for (int i = 0; i < 5; i++) {
+            journal.append(audit("Registro " + i));
+        }
+
+        verify(audithRepository, timeout(2000).atLeastOnce()).saveAll(anyList());
+        journal.shutdown();
+        assertEquals(5, saved.size());
+        assertEquals("Registro 0", saved.get(0).getDescription());
+        assertEquals(5, journal.getMetrics().getShipped());
+        assertTrue(Files.exists(directory.resolve("shipped.offset")));
+    }
+
+    @Test
+    void startup_replaysSegmentsNotShippedBeforeRestart() {
+        AudithRepository offline = mock(AudithRepository.class);
+        when(offline.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+        AuditJournal first = journal(offline, 1 << 16);
+        for (int i = 0; i < 3; i++) {
+            first.append(audit("Registro " + i));
+        }
+        first.shutdown();
+        assertEquals(0, first.getMetrics().getShipped());
+
+        journal(audithRepository, 1 << 16);
+
+        verify(audithRepository, timeout(2000).atLeastOnce()).saveAll(anyList());
+        assertEquals(List.of("Registro 0", "Registro 1", "Registro 2"),
+                saved.stream().map(Audith::getDescription).toList());
+    }
+
+    @Test
+    void startup_damagedRecordEndsItsSegment() throws Exception {
+        AudithRepository offline = mock(AudithRepository.class);
+        when(offline.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+        AuditJournal first = journal(offline, 1 << 16);
+        first.append(audit("Registro 0"));
+        first.append(audit("Registro 1"));
+        first.shutdown();
+
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            // Flip a payload byte of the second record
+            long secondPayload = 8L + firstLength + 8 + 10;
+            file.seek(secondPayload);
+            int value = file.read();
+            file.seek(secondPayload);
+            file.write(value ^ 0xFF);
+        }
+
+        AuditJournal second = journal(audithRepository, 1 << 16);
+        verify(audithRepository, timeout(2000)).saveAll(anyList());
+        second.shutdown();
+
+        assertEquals(List.of("Registro 0"), saved.stream().map(Audith::getDescription).toList());
+        assertEquals(1, second.getMetrics().getCorrupt());
+        assertFalse(Files.exists(segment));
+    }
+
+    @Test
+    void append_rollsSegmentsAndDeletesShippedOnes() throws Exception {
+        AuditJournal journal = journal(audithRepository, 512);
+
+        for (int i = 0; i < 20; i++) {
+            journal.append(audit("Registro " + i));
+        }
+        journal.shutdown();
+
+        assertEquals(20, saved.size());
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void constructor_rejectsMissingOrTemporaryDirectory() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThrows(IllegalStateException.class, () -> new AuditJournal(audithRepository, objectMapper,
+                true, "", 1 << 16, 50, 20, false, 5000, 3));
+        assertThrows(IllegalStateException.class, () -> new AuditJournal(audithRepository, objectMapper,
+                true, System.getProperty("java.io.tmpdir") + "/parking-audit-journal", 1 << 16, 50, 20, false, 5000, 3));
+        assertFalse(new AuditJournal(audithRepository, objectMapper, false, "", 1 << 16, 50, 20, false, 5000, 3)
+                .isEnabled());
+    }
+
+    @Test
+    void ship_integrityViolationIsDeadLetteredAndTheRestShips() throws Exception {
+        AudithRepository rejecting = mock(AudithRepository.class);
+        when(rejecting.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("value too long"));
+        when(rejecting.save(any(Audith.class))).thenAnswer(invocation -> {
+            Audith audit = invocation.getArgument(0);
+            if (audit.getDescription().equals("Registro 1")) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            saved.add(audit);
+            return audit;
+        });
+        AuditJournal journal = journal(rejecting, 1 << 16);
+        for (int i = 0; i < 3; i++) {
+            journal.append(audit("Registro " + i));
+        }
+        journal.shutdown();
+
+        assertEquals(List.of("Registro 0", "Registro 2"), saved.stream().map(Audith::getDescription).toList());
+        assertEquals(2, journal.getMetrics().getShipped());
+        assertEquals(1, journal.getMetrics().getDeadLettered());
+        List<String> deadLetters = Files.readAllLines(directory.resolve("dead-letter.ndjson"));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("Registro 1"));
+    }
+
+    @Test
+    void ship_recordFailingMaxAttemptsTimesIsDeadLettered() throws Exception {
+        AudithRepository rejecting = mock(AudithRepository.class);
+        when(rejecting.saveAll(anyList())).thenThrow(new IllegalArgumentException("unsupported value"));
+        when(rejecting.save(any(Audith.class))).thenThrow(new IllegalArgumentException("unsupported value"));
+        AuditJournal journal = journal(rejecting, 1 << 16);
+        journal.append(audit("Registro 0"));
+
+        verify(rejecting, timeout(2000).times(3)).save(any(Audith.class));
+        journal.shutdown();
+
+        assertEquals(1, journal.getMetrics().getDeadLettered());
+        assertEquals(1, Files.readAllLines(directory.resolve("dead-letter.ndjson")).size());
+    }
+
+    @Test
+    void ship_unreachableDatabaseNeverDeadLetters() throws Exception {
+        AudithRepository offline = mock(AudithRepository.class);
+        when(offline.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+        AuditJournal journal = journal(offline, 1 << 16);
+        journal.append(audit("Registro 0"));
+
+        verify(offline, timeout(2000).atLeast(5)).saveAll(anyList());
+        journal.shutdown();
+
+        verify(offline, never()).save(any(Audith.class));
+        assertEquals(0, journal.getMetrics().getDeadLettered());
+        assertFalse(Files.exists(directory.resolve("dead-letter.ndjson")));
+    }
+}
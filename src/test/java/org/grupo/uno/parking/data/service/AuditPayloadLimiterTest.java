@@ -0,0 +1,64 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AuditPayloadLimiterTest {
+
+    private final AuditPayloadLimiter limiter = new AuditPayloadLimiter(new ObjectMapper(), 100, 150);
+
+    @Test
+    void limit_keepsSmallValuesAsStrings() {
+        Map<String, Object> limited = limiter.limit(Map.of("parkingId", 1L, "plate", "ABC123"), limiter.newBudget());
+
+        assertEquals("1", limited.get("parkingId"));
+        assertEquals("ABC123", limited.get("plate"));
+    }
+
+    @Test
+    void limit_largeReport_stopsRenderingAtTheBudget() {
+        AtomicInteger rendered = new AtomicInteger();
+        AbstractList<RegisterDTO> report = new AbstractList<>() {
+            @Override
+            public RegisterDTO get(int index) {
+                rendered.incrementAndGet();
+                RegisterDTO register = new RegisterDTO();
+                register.setPlate(String.format("P%05d", index));
+                return register;
+            }
+
+            @Override
+            public int size() {
+                return 100_000;
+            }
+        };
+
+        Map<String, Object> limited = limiter.limit(Map.of("report", report), limiter.newBudget());
+
+        String value = (String) limited.get("report");
+        assertEquals(100, value.length());
+        assertTrue(value.startsWith("[{"));
+        assertTrue(rendered.get() < 1_000, "rendered " + rendered.get());
+    }
+
+    @Test
+    void limit_sharesTheBudgetBetweenRequestAndResponse() {
+        AuditPayloadLimiter.Budget budget = limiter.newBudget();
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("description", "x".repeat(120));
+
+        Map<String, Object> limitedRequest = limiter.limit(request, budget);
+        Map<String, Object> limitedResponse = limiter.limit(Map.of("notes", "y".repeat(120)), budget);
+
+        assertEquals(100, ((String) limitedRequest.get("description")).length());
+        assertEquals(50, ((String) limitedResponse.get("notes")).length());
+    }
+}
@@ -0,0 +1,69 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.grupo.uno.parking.data.dto.AuditMode;
+import org.grupo.uno.parking.data.dto.AuditPolicyDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+class AuditPolicyTest {
+
+    @Test
+    void decide_usesMostSpecificRule() {
+        AuditPolicy policy = new AuditPolicy(AuditMode.ALWAYS, "*:READ=OFF, Fare:READ=ALWAYS, Register:*=OFF");
+
+        assertTrue(policy.decide("Fare", "READ").record());
+        assertFalse(policy.decide("Parking", "READ").record());
+        assertFalse(policy.decide("Register", "UPDATE").record());
+        assertTrue(policy.decide("Parking", "UPDATE").record());
+    }
+
+    @Test
+    void decide_sampled_recordsRoughlyThePercentage() {
+        AuditPolicy policy = new AuditPolicy(AuditMode.ALWAYS, "fare:read=SAMPLED:10");
+
+        long recorded = IntStream.range(0, 10_000)
+                .filter(i -> policy.decide("Fare", "READ").record())
+                .count();
+
+        assertTrue(recorded > 700 && recorded < 1300, "recorded " + recorded);
+    }
+
+    @Test
+    void decide_coalesced_recordsWithTheRuleWindow() {
+        AuditPolicy policy = new AuditPolicy(AuditMode.ALWAYS, "Parking:GET=COALESCED:3600");
+
+        assertEquals(new AuditPolicy.Decision(true, 3600), policy.decide("Parking", "GET"));
+        assertEquals(new AuditPolicy.Decision(true, 0), policy.decide("Parking", "POST"));
+    }
+
+    @Test
+    void setRule_appliesAtRuntimeAndCanBeRemoved() {
+        AuditPolicy policy = new AuditPolicy(AuditMode.ALWAYS, "");
+
+        policy.setRule(new AuditPolicyDTO("Fare", "READ", AuditMode.OFF, null, null, 0, 0));
+        assertFalse(policy.decide("Fare", "READ").record());
+
+        assertTrue(policy.removeRule("fare", "read"));
+        assertTrue(policy.decide("Fare", "READ").record());
+        assertFalse(policy.removeRule("Fare", "READ"));
+    }
+
+    @Test
+    void setRule_invalidParameters_throwsIllegalArgumentException() {
+        AuditPolicy policy = new AuditPolicy(AuditMode.ALWAYS, "");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> policy.setRule(new AuditPolicyDTO("Fare", "READ", AuditMode.SAMPLED, 150, null, 0, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> policy.setRule(new AuditPolicyDTO("Fare", "READ", AuditMode.COALESCED, null, null, 0, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> policy.setRule(new AuditPolicyDTO("*", "*", AuditMode.OFF, null, null, 0, 0)));
+        List<AuditPolicyDTO> rules = policy.getRules();
+        assertEquals(1, rules.size());
+        assertEquals(AuditMode.ALWAYS, rules.get(0).getMode());
+    }
+}
@@ -0,0 +1,165 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.grupo.uno.parking.data.dto.AuditWriterMetricsDTO;
+import org.grupo.uno.parking.data.model.Audith;
+import org.grupo.uno.parking.data.repository.AudithRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class AuditWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private AudithRepository audithRepository;
+    private AuditWriter auditWriter;
+    private final List<Audith> saved = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstSaveStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstSave = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        audithRepository = mock(AudithRepository.class);
+        when(audithRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Audith> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstSave.countDown();
+        if (auditWriter != null) {
+            auditWriter.shutdown();
+        }
+    }
+
+    private AuditWriter writer(int capacity, int batchSize, long flushIntervalMs, AuditWriter.Backpressure backpressure) {
+        auditWriter = new AuditWriter(audithRepository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                capacity, batchSize, flushIntervalMs, 10, 5000, backpressure, directory.toString());
+        return auditWriter;
+    }
+
+    private Audith audit(String operation) {
+        Audith audit = new Audith();
+        audit.setEntity("Fare");
+        audit.setDescription("Test description");
+        audit.setOperation(operation);
+        audit.setStartDate(LocalDateTime.of(2024, 1, 15, 12, 0));
+        audit.setRequest(Map.of("key", "value"));
+        audit.setResult("SUCCESS");
+        return audit;
+    }
+
+    private void blockFirstSave() {
+        doAnswer(invocation -> {
+            firstSaveStarted.countDown();
+            releaseFirstSave.await(5, TimeUnit.SECONDS);
+            List<Audith> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        }).doAnswer(invocation -> {
+            List<Audith> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        }).when(audithRepository).saveAll(anyList());
+    }
+
+    @Test
+    void enqueue_fullBatch_isWrittenBeforeTheInterval() {
+        AuditWriter writer = writer(100, 3, 60_000, AuditWriter.Backpressure.BLOCK);
+
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(audit("CREATE"));
+        }
+
+        verify(audithRepository, timeout(2000)).saveAll(anyList());
+        assertEquals(3, saved.size());
+    }
+
+    @Test
+    void enqueue_partialBatch_isWrittenAfterTheInterval() {
+        AuditWriter writer = writer(100, 100, 50, AuditWriter.Backpressure.BLOCK);
+
+        writer.enqueue(audit("CREATE"));
+
+        verify(audithRepository, timeout(2000)).saveAll(anyList());
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    void shutdown_drainsQueuedAudits() {
+        AuditWriter writer = writer(100, 1000, 60_000, AuditWriter.Backpressure.BLOCK);
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(audit("UPDATE"));
+        }
+
+        writer.shutdown();
+
+        assertEquals(5, saved.size());
+        assertEquals(5, writer.getMetrics().getWritten());
+    }
+
+    @Test
+    void enqueue_dropReadsFirst_evictsQueuedReadForWrite() throws Exception {
+        blockFirstSave();
+        AuditWriter writer = writer(2, 1, 60_000, AuditWriter.Backpressure.DROP_READS_FIRST);
+        writer.enqueue(audit("CREATE"));
+        assertTrue(firstSaveStarted.await(2, TimeUnit.SECONDS));
+
+        writer.enqueue(audit("READ"));
+        writer.enqueue(audit("READ"));
+        writer.enqueue(audit("DELETE"));
+        writer.enqueue(audit("READ"));
+
+        AuditWriterMetricsDTO metrics = writer.getMetrics();
+        assertEquals(2, metrics.getDroppedReads());
+        assertEquals(2, metrics.getQueued());
+
+        releaseFirstSave.countDown();
+        writer.shutdown();
+        assertEquals(List.of("CREATE", "READ", "DELETE"), saved.stream().map(Audith::getOperation).toList());
+    }
+
+    @Test
+    void enqueue_spill_writesOverflowToDiskAndReplaysIt() throws Exception {
+        blockFirstSave();
+        AuditWriter writer = writer(1, 1, 20, AuditWriter.Backpressure.SPILL);
+        writer.enqueue(audit("CREATE"));
+        assertTrue(firstSaveStarted.await(2, TimeUnit.SECONDS));
+
+        writer.enqueue(audit("UPDATE"));
+        writer.enqueue(audit("DELETE"));
+        writer.enqueue(audit("READ"));
+
+        assertEquals(2, writer.getMetrics().getSpilled());
+        assertTrue(Files.exists(directory.resolve("audit-spill.ndjson")));
+
+        releaseFirstSave.countDown();
+        verify(audithRepository, timeout(2000).times(4)).saveAll(anyList());
+        assertEquals(4, saved.size());
+        assertEquals(0, writer.getMetrics().getDropped());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package org.grupo.uno.parking.data.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ValidationException;
+import org.grupo.uno.parking.data.configuration.JacksonConfig;
+import org.grupo.uno.parking.data.dto.AuditExportFormat;
+import org.grupo.uno.parking.data.dto.AuditExportRow;
+import org.grupo.uno.parking.data.dto.AuditSearchRequest;
+import org.grupo.uno.parking.data.dto.AuditSearchResultDTO;
 import org.grupo.uno.parking.data.dto.AudithDTO;
 import org.grupo.uno.parking.data.model.Audith;
 import org.grupo.uno.parking.data.repository.AudithRepository;
@@ -9,18 +15,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +49,30 @@ class AudithServiceTest {
     @Mock
     private AudithRepository audithRepository;
 
+    @Mock
+    private AuditWriter auditWriter;
+
+    @Mock
+    private AuditJournal auditJournal;
+
+    @Mock
+    private AuditPolicy auditPolicy;
+
+    @Mock
+    private AuditArchive auditArchive;
+
+    @Mock
+    private AuditCounters auditCounters;
+
+    @Mock
+    private AuditCoalescer auditCoalescer;
+
+    @Spy
+    private ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @Spy
+    private AuditPayloadLimiter auditPayloadLimiter = new AuditPayloadLimiter(new ObjectMapper(), 255, 4096);
+
     @InjectMocks
     private AudithService audithService;
 
@@ -36,6 +80,7 @@ class AudithServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(auditPolicy.decide(any(), any())).thenReturn(new AuditPolicy.Decision(true, 0));
         audit = new Audith();
         audit.setAuditId(1L);
         audit.setEntity("TestEntity");
@@ -49,14 +94,49 @@ class AudithServiceTest {
 
     @Test
     void createAudit_success() {
-        when(audithRepository.save(any(Audith.class))).thenReturn(audit);
-
         Audith createdAudit = audithService.createAudit("TestEntity", "Test description", "CREATE",
                 Collections.singletonMap("key", "value"), Collections.singletonMap("responseKey", "responseValue"), "SUCCESS");
 
         assertNotNull(createdAudit);
-        assertEquals(audit.getAuditId(), createdAudit.getAuditId());
-        verify(audithRepository, times(1)).save(any(Audith.class));
+        assertEquals("TestEntity", createdAudit.getEntity());
+        assertEquals("CREATE", createdAudit.getOperation());
+        assertNotNull(createdAudit.getStartDate());
+        verify(auditWriter, times(1)).enqueue(createdAudit);
+        verify(audithRepository, never()).save(any(Audith.class));
+    }
+
+    @Test
+    void createAudit_journalEnabled_appendsToJournal() {
+        when(auditJournal.isEnabled()).thenReturn(true);
+
+        Audith createdAudit = audithService.createAudit("TestEntity", "Test description", "DELETE",
+                null, Collections.singletonMap("responseKey", "responseValue"), "SUCCESS");
+
+        verify(auditJournal).append(createdAudit);
+        verifyNoInteractions(auditWriter);
+    }
+
+    @Test
+    void createAudit_skippedByPolicy_returnsNull() {
+        when(auditPolicy.decide("Fare", "READ")).thenReturn(new AuditPolicy.Decision(false, 0));
+
+        assertNull(audithService.createAudit("Fare", "Retrieved all fares", "READ", null, null, "SUCCESS"));
+        verifyNoInteractions(auditWriter, auditJournal);
+    }
+
+    @Test
+    void createAudit_coalesced_handsAuditToCoalescer() {
+        when(auditPolicy.decide("Parking", "GET")).thenReturn(new AuditPolicy.Decision(true, 60));
+        when(auditCoalescer.add(any(Audith.class), eq(60L))).thenReturn(false, true);
+
+        Audith createdAudit = audithService.createAudit("Parking", 1L, "Fetch parking by ID", "GET",
+                Collections.singletonMap("parkingId", 1), null, "SUCCESS");
+        Audith mergedAudit = audithService.createAudit("Parking", 1L, "Fetch parking by ID", "GET",
+                Collections.singletonMap("parkingId", 1), null, "SUCCESS");
+
+        assertEquals("1", createdAudit.getRequest().get("parkingId"));
+        assertNull(mergedAudit);
+        verifyNoInteractions(auditWriter, auditJournal);
     }
 
     @Test
@@ -75,6 +155,8 @@ class AudithServiceTest {
             audithService.createAudit("TestEntity", "Test description", "",
                     Collections.singletonMap("key", "value"), Collections.singletonMap("responseKey", "responseValue"), "SUCCESS");
         });
+
+        verifyNoInteractions(auditWriter);
     }
 
     @Test
@@ -124,6 +206,25 @@ class AudithServiceTest {
         verify(audithRepository, times(1)).findByEntityIgnoreCase(eq("TestEntity"), any());
     }
 
+    @Test
+    void createAudit_withEntityId_setsEntityId() {
+        Audith createdAudit = audithService.createAudit("Fare", 5L, "Fare with ID 5 was updated", "UPDATE",
+                null, null, "SUCCESS");
+
+        assertEquals(5L, createdAudit.getEntityId());
+        verify(auditWriter).enqueue(createdAudit);
+    }
+
+    @Test
+    void getEntityHistory_success() {
+        Page<Audith> page = new PageImpl<>(Collections.singletonList(audit));
+        when(audithRepository.findHistory(eq("Fare"), eq(5L), any())).thenReturn(page);
+
+        Page<Audith> result = audithService.getEntityHistory("Fare", 5L, 0, 10);
+
+        assertEquals(1, result.getTotalElements());
+    }
+
     @Test
     void getAuditsByEntity_emptyEntity() {
         Exception exception = assertThrows(ValidationException.class, () -> {
@@ -169,6 +270,46 @@ class AudithServiceTest {
         verify(audithRepository, times(1)).findByStartDateBetween(eq(startDate), eq(endDate), any());
     }
 
+    @Test
+    void getAuditsByDateRange_pageStraddlingArchive_appendsLiveRows() {
+        LocalDateTime startDate = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 12, 31, 23, 59);
+        Audith archived = new Audith();
+        archived.setAuditId(100L);
+        when(auditArchive.count(startDate, endDate, null)).thenReturn(3L);
+        when(auditArchive.read(startDate, endDate, null, 2L, 2)).thenReturn(List.of(archived));
+        when(audithRepository.findByStartDateBetween(eq(startDate), eq(endDate), any()))
+                .thenReturn(new PageImpl<>(List.of(audit, new Audith()), PageRequest.of(0, 2), 4));
+
+        Page<Audith> result = audithService.getAuditsByDateRange(startDate, endDate, 1, 2);
+
+        assertEquals(List.of(archived, audit), result.getContent());
+        assertEquals(7, result.getTotalElements());
+    }
+
+    @Test
+    void getAuditsByDateRange_pageAfterArchive_readsUnalignedLiveRows() {
+        LocalDateTime startDate = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 12, 31, 23, 59);
+        List<Audith> live = IntStream.range(0, 5).mapToObj(i -> {
+            Audith row = new Audith();
+            row.setAuditId(i);
+            return row;
+        }).toList();
+        when(auditArchive.count(startDate, endDate, "Fare")).thenReturn(3L);
+        // Página 2 de 2: filas 4 y 5, es decir las filas 1 y 2 de la tabla
+        PageRequest first = PageRequest.of(0, 2, Sort.by("startDate", "auditId"));
+        when(audithRepository.findByEntityIgnoreCaseAndStartDateBetween(eq("Fare"), eq(startDate), eq(endDate), eq(first)))
+                .thenReturn(new PageImpl<>(live.subList(0, 2), first, 5));
+        when(audithRepository.findByEntityIgnoreCaseAndStartDateBetween(eq("Fare"), eq(startDate), eq(endDate), eq(first.next())))
+                .thenReturn(new PageImpl<>(live.subList(2, 4), first.next(), 5));
+
+        Page<Audith> result = audithService.getAuditsByDateRange(startDate, endDate, "Fare", 2, 2);
+
+        assertEquals(List.of(live.get(1), live.get(2)), result.getContent());
+        assertEquals(8, result.getTotalElements());
+    }
+
     @Test
     void getAuditsByDateRange_invalidDates() {
         LocalDateTime startDate = LocalDateTime.now();
@@ -198,4 +339,110 @@ class AudithServiceTest {
 
         assertNull(dto);
     }
+
+    @Test
+    void searchAudits_buildsContainmentFilterAndNextCursor() {
+        Audith older = new Audith();
+        older.setAuditId(2L);
+        older.setStartDate(LocalDateTime.of(2024, 1, 15, 11, 0));
+        Audith oldest = new Audith();
+        oldest.setAuditId(1L);
+        oldest.setStartDate(LocalDateTime.of(2024, 1, 15, 10, 0));
+        when(audithRepository.search(eq("Register"), eq("UPDATE"), isNull(), isNull(), isNull(),
+                eq("{\"plate\":\"P012345\"}"), isNull(), eq(0L), eq(3)))
+                .thenReturn(List.of(audit, older, oldest));
+
+        AuditSearchRequest search = new AuditSearchRequest("Register", "update", "", null, null,
+                "plate", "P012345", null, null, 2);
+        AuditSearchResultDTO result = audithService.searchAudits(search);
+
+        assertEquals(2, result.getAudits().size());
+        assertEquals(older.getStartDate(), result.getNextCursorDate());
+        assertEquals(2L, result.getNextCursorId());
+    }
+
+    @Test
+    void searchAudits_lastPage_hasNoCursor() {
+        LocalDateTime cursorDate = LocalDateTime.of(2024, 1, 15, 12, 0);
+        when(audithRepository.search(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(cursorDate), eq(9L), eq(51))).thenReturn(List.of(audit));
+        when(auditArchive.reaches(null)).thenReturn(true);
+        when(auditArchive.getCutoff()).thenReturn(LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        AuditSearchResultDTO result = audithService.searchAudits(
+                new AuditSearchRequest(null, null, null, null, null, null, null, cursorDate, 9L, null));
+
+        assertEquals(1, result.getAudits().size());
+        assertNull(result.getNextCursorDate());
+        assertNull(result.getNextCursorId());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), result.getArchivedBefore());
+    }
+
+    @Test
+    void searchAudits_invalidParameters_throwsValidationException() {
+        assertThrows(ValidationException.class, () -> audithService.searchAudits(
+                new AuditSearchRequest(null, null, null, null, null, "plate", null, null, null, null)));
+        assertThrows(ValidationException.class, () -> audithService.searchAudits(
+                new AuditSearchRequest(null, null, null, null, null, "vehicle.plate", "P012345", null, null, null)));
+        assertThrows(ValidationException.class, () -> audithService.searchAudits(
+                new AuditSearchRequest(null, null, null, null, null, null, null, LocalDateTime.now(), null, null)));
+        assertThrows(ValidationException.class, () -> audithService.searchAudits(
+                new AuditSearchRequest(null, null, null, null, null, null, null, null, null, 1000)));
+        verifyNoInteractions(audithRepository);
+    }
+
+    @Test
+    void exportAudits_ndjson_writesOneLinePerAudit() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 3, 31, 23, 59);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(audithRepository.streamByStartDateBetween(startDate, endDate)).thenReturn(Stream.of(
+                exportRow(1L, "Registro creado"), exportRow(2L, "Registro actualizado")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = audithService.exportAudits(startDate, endDate, AuditExportFormat.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"auditId\":1,\"entity\":\"Register\",\"entityId\":7,\"startDate\":\"2024-01-15T12:00:00.000000\""));
+        assertTrue(lines[1].contains("\"request\":{\"plate\":\"ABC123\"}"));
+        assertTrue(closed.get());
+        verify(auditWriter).enqueue(argThat(audit -> "EXPORT".equals(audit.getOperation())));
+    }
+
+    @Test
+    void exportAudits_csvGzip_quotesFieldsWithSeparators() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 3, 31, 23, 59);
+        when(audithRepository.streamByStartDateBetween(startDate, endDate))
+                .thenReturn(Stream.of(exportRow(1L, "Registro \"A\", creado")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = audithService.exportAudits(startDate, endDate, AuditExportFormat.CSV_GZIP, output);
+
+        String csv;
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            csv = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+        assertEquals(1, rows);
+        assertEquals("audit_id,entity,entity_id,start_date,occurrences,last_date,description,operation,result,request,response", lines[0]);
+        assertEquals("1,Register,7,2024-01-15T12:00,1,,\"Registro \"\"A\"\", creado\",UPDATE,SUCCESS,"
+                + "\"{\"\"plate\"\":\"\"ABC123\"\"}\",", lines[1]);
+    }
+
+    @Test
+    void exportAudits_invalidRange_throwsValidationException() {
+        LocalDateTime startDate = LocalDateTime.now();
+
+        assertThrows(ValidationException.class, () -> audithService.exportAudits(startDate, startDate.minusDays(1),
+                AuditExportFormat.NDJSON, new ByteArrayOutputStream()));
+        verifyNoInteractions(audithRepository);
+    }
+
+    private AuditExportRow exportRow(long auditId, String description) {
+        return new AuditExportRow(auditId, "Register", 7L, LocalDateTime.of(2024, 1, 15, 12, 0), 1, null, description,
+                "UPDATE", "SUCCESS", Map.of("plate", "ABC123"), null);
+    }
 }
@@ -0,0 +1,107 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.model.Fare;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FareScheduleTest {
+
+    private Fare fare(long id, String start, String end, double price) {
+        return new Fare(id, "Fare " + id, start, end, price, true);
+    }
+
+    @Test
+    void fareAt_minuteInsideWindow_returnsFare() {
+        Fare day = fare(2L, "08:00", "20:00", 10.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(day));
+
+        assertEquals(day, schedule.fareAt(8 * 60));
+        assertEquals(day, schedule.fareAt(20 * 60));
+        assertEquals(day, schedule.fareAt(LocalDateTime.of(2024, 1, 1, 12, 30)));
+        assertNull(schedule.fareAt(20 * 60 + 1));
+    }
+
+    @Test
+    void fareAt_overnightWindow_wrapsAroundMidnight() {
+        Fare night = fare(3L, "22:00", "06:00", 5.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(night));
+
+        assertEquals(night, schedule.fareAt(23 * 60));
+        assertEquals(night, schedule.fareAt(0));
+        assertEquals(night, schedule.fareAt(6 * 60));
+        assertNull(schedule.fareAt(12 * 60));
+    }
+
+    @Test
+    void fareAt_overlappingWindows_firstFareWins() {
+        Fare first = fare(2L, "08:00", "12:00", 10.0);
+        Fare second = fare(3L, "10:00", "14:00", 20.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(first, second));
+
+        assertEquals(first, schedule.fareAt(11 * 60));
+        assertEquals(second, schedule.fareAt(13 * 60));
+    }
+
+    @Test
+    void fareAt_uncoveredMinute_fallsBackToDefaultFare() {
+        Fare defaultFare = fare(1L, "00:00", "00:30", 8.0);
+        Fare day = fare(2L, "08:00", "20:00", 10.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(defaultFare, day));
+
+        assertEquals(defaultFare, schedule.getDefaultFare());
+        assertEquals(defaultFare, schedule.fareAt(21 * 60));
+    }
+
+    @Test
+    void compile_invalidWindow_isSkipped() {
+        Fare broken = fare(2L, "8am", "20:00", 10.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(broken));
+
+        assertNull(schedule.fareAt(9 * 60));
+    }
+
+    @Test
+    void priceOf_staySpanningWindows_chargesEachMinuteWithItsFare() {
+        Fare night = fare(2L, "18:00", "05:59", 6.0);
+        Fare day = fare(3L, "06:00", "17:59", 12.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(night, day));
+
+        double total = schedule.priceOf(LocalDateTime.of(2024, 1, 1, 5, 59), LocalDateTime.of(2024, 1, 1, 18, 0));
+
+        assertEquals(6.0 / 60 + 12.0 * 12, total, 1e-9);
+    }
+
+    @Test
+    void priceOf_multiDayStay_addsWholeDays() {
+        Fare night = fare(2L, "18:00", "05:59", 6.0);
+        Fare day = fare(3L, "06:00", "17:59", 12.0);
+        FareSchedule schedule = FareSchedule.compile(List.of(night, day));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 20, 0);
+
+        double total = schedule.priceOf(start, start.plusDays(3).plusHours(1));
+
+        assertEquals(3 * (6.0 * 12 + 12.0 * 12) + 6.0, total, 1e-9);
+    }
+
+    @Test
+    void priceOf_uncoveredMinutes_useDefaultFareOrAreFree() {
+        Fare defaultFare = fare(1L, "00:00", "00:30", 8.0);
+        Fare day = fare(2L, "08:00", "20:00", 10.0);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 20, 1);
+
+        assertEquals(16.0, FareSchedule.compile(List.of(defaultFare, day)).priceOf(start, start.plusHours(2)), 1e-9);
+        assertEquals(0.0, FareSchedule.compile(List.of(day)).priceOf(start, start.plusHours(2)), 1e-9);
+    }
+
+    @Test
+    void priceOf_endBeforeStart_isZero() {
+        FareSchedule schedule = FareSchedule.compile(List.of(fare(2L, "00:00", "23:59", 10.0)));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        assertEquals(0.0, schedule.priceOf(start, start.minusMinutes(5)));
+    }
+}
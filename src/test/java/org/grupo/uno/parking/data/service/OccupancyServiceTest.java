@@ -0,0 +1,94 @@
+package org.grupo.uno.parking.data.service;
+
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
+import org.grupo.uno.parking.data.model.Parking;
+import org.grupo.uno.parking.data.repository.ParkingRepository;
+import org.grupo.uno.parking.data.repository.RegisterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyServiceTest {
+
+    @Mock
+    private RegisterRepository registerRepository;
+
+    @Mock
+    private ParkingRepository parkingRepository;
+
+    @InjectMocks
+    private OccupancyService occupancyService;
+
+    private Parking parking;
+
+    @BeforeEach
+    void setUp() {
+        parking = new Parking();
+        parking.setParkingId(1L);
+        parking.setSpaces(2);
+    }
+
+    @Test
+    void seed_loadsCountersFromAggregateQuery() {
+        when(parkingRepository.findOccupancySnapshot())
+                .thenReturn(Collections.singletonList(new Object[]{1L, 2, 1L}));
+
+        occupancyService.seed();
+        Optional<OccupancyDTO> occupancy = occupancyService.getOccupancy(1L);
+
+        assertTrue(occupancy.isPresent());
+        assertEquals(1, occupancy.get().getOccupied());
+        assertEquals(1, occupancy.get().getAvailable());
+        verifyNoInteractions(registerRepository);
+    }
+
+    @Test
+    void seed_keepsCounterCreatedOnDemand() {
+        when(registerRepository.countByParking_ParkingIdAndEndDateIsNull(1L)).thenReturn(0L);
+        assertTrue(occupancyService.tryAdmit(parking));
+        when(parkingRepository.findOccupancySnapshot())
+                .thenReturn(Collections.singletonList(new Object[]{1L, 2, 0L}));
+
+        occupancyService.seed();
+
+        assertEquals(1, occupancyService.getOccupancy(1L).orElseThrow().getOccupied());
+    }
+
+    @Test
+    void tryAdmit_rejectsWhenParkingIsFull() {
+        when(registerRepository.countByParking_ParkingIdAndEndDateIsNull(1L)).thenReturn(1L);
+
+        assertTrue(occupancyService.tryAdmit(parking));
+        assertFalse(occupancyService.tryAdmit(parking));
+    }
+
+    @Test
+    void release_freesSpaceAndNeverGoesNegative() {
+        when(registerRepository.countByParking_ParkingIdAndEndDateIsNull(1L)).thenReturn(2L);
+
+        assertFalse(occupancyService.tryAdmit(parking));
+        occupancyService.release(1L);
+        occupancyService.release(1L);
+        occupancyService.release(1L);
+
+        assertEquals(0, occupancyService.getOccupancy(1L).get().getOccupied());
+        assertTrue(occupancyService.tryAdmit(parking));
+    }
+
+    @Test
+    void getOccupancy_unknownParking_returnsEmpty() {
+        when(parkingRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(occupancyService.getOccupancy(9L).isEmpty());
+    }
+}
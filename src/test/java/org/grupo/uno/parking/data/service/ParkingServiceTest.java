@@ -1,7 +1,10 @@
 package org.grupo.uno.parking.data.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ActiveVehicleDTO;
+import org.grupo.uno.parking.data.dto.OccupancyDTO;
 import org.grupo.uno.parking.data.dto.ParkingDTO;
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
 import org.grupo.uno.parking.data.model.Parking;
 import org.grupo.uno.parking.data.repository.ParkingRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +20,9 @@ import org.springframework.data.domain.Pageable;
 
 
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +41,18 @@ class ParkingServiceTest {
     @Mock
     private AudithService audithService;
 
+    @Mock
+    private OccupancyService occupancyService;
+
+    @Mock
+    private ActiveSessionIndex activeSessionIndex;
+
+    @Mock
+    private ParkingStatsService parkingStatsService;
+
+    @Mock
+    private EntityCacheStats entityCacheStats;
+
     private Parking parking;
     private ParkingDTO parkingDTO;
 
@@ -68,6 +86,17 @@ class ParkingServiceTest {
         assertEquals("New Parking Name", parking.getName());
         assertFalse(parking.getStatus());
         verify(parkingRepository, times(1)).save(parking);
+        verify(occupancyService, never()).updateCapacity(anyLong(), anyInt());
+    }
+
+    @Test
+    void patchParking_spaces_updatesOccupancyCapacity() {
+        when(parkingRepository.findById(anyLong())).thenReturn(Optional.of(parking));
+
+        parkingService.patchParking(1L, Map.of("spaces", 25));
+
+        assertEquals(25, parking.getSpaces());
+        verify(occupancyService).updateCapacity(1L, 25);
     }
 
 
@@ -244,4 +273,71 @@ class ParkingServiceTest {
     }
 
 
+
+    @Test
+    void getOccupancy_trackedParking_returnsOccupancy() {
+        when(occupancyService.getOccupancy(1L)).thenReturn(Optional.of(new OccupancyDTO(1L, 10, 4, 6)));
+
+        OccupancyDTO occupancy = parkingService.getOccupancy(1L);
+
+        assertEquals(4, occupancy.getOccupied());
+        assertEquals(6, occupancy.getAvailable());
+    }
+
+    @Test
+    void getOccupancy_unknownParking_throwsEntityNotFoundException() {
+        when(occupancyService.getOccupancy(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> parkingService.getOccupancy(1L));
+    }
+
+    @Test
+    void getActiveVehicles_returnsSessionsOfParkingOrderedByEntry() {
+        LocalDateTime now = LocalDateTime.now();
+        when(activeSessionIndex.findByParking(1L)).thenReturn(List.of(
+                new ActiveSessionIndex.ActiveSession(2L, "P002", now, 1L),
+                new ActiveSessionIndex.ActiveSession(1L, "P001", now.minusHours(1), 1L)));
+
+        List<ActiveVehicleDTO> vehicles = parkingService.getActiveVehicles(1L);
+
+        assertEquals(2, vehicles.size());
+        assertEquals("P001", vehicles.get(0).getPlate());
+    }
+
+    @Test
+    void patchParking_auditsOnlyChangedFields() {
+        when(parkingRepository.findById(1L)).thenReturn(Optional.of(parking));
+
+        parkingService.patchParking(1L, Map.of("name", "Renamed Parking", "status", true));
+
+        verify(audithService).createAudit("Parking", 1L, "Patch parking", "PATCH",
+                Map.of("parkingId", 1L, "name", "Test Parking"), Map.of("parkingId", 1L, "name", "Renamed Parking"), "SUCCESS");
+    }
+
+    @Test
+    void getStats_existingParking_readsRollup() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+        ParkingStatsDTO stats = new ParkingStatsDTO(1L, start, end, 3, BigDecimal.TEN, 90, Map.of(), List.of());
+        when(parkingRepository.findById(1L)).thenReturn(Optional.of(parking));
+        when(parkingStatsService.getStats(1L, start, end)).thenReturn(stats);
+
+        assertSame(stats, parkingService.getStats(1L, start, end));
+    }
+
+    @Test
+    void getStats_unknownParking_throwsEntityNotFoundException() {
+        when(parkingRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> parkingService.getStats(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        verifyNoInteractions(parkingStatsService);
+    }
+
+    @Test
+    void rebuildStats_invertedRange_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> parkingService.rebuildStats(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+        verifyNoInteractions(parkingStatsService);
+    }
 }
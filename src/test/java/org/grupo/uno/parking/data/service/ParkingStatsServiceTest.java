@@ -0,0 +1,138 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.grupo.uno.parking.data.dto.ParkingStatsDTO;
+import org.grupo.uno.parking.data.model.Fare;
+import org.grupo.uno.parking.data.model.Parking;
+import org.grupo.uno.parking.data.model.ParkingDailyStats;
+import org.grupo.uno.parking.data.model.ParkingDailyStatsId;
+import org.grupo.uno.parking.data.model.Register;
+import org.grupo.uno.parking.data.repository.ParkingDailyStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+class ParkingStatsServiceTest {
+
+    @Mock
+    private ParkingDailyStatsRepository statsRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ParkingStatsService parkingStatsService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        parkingStatsService = new ParkingStatsService(statsRepository, transactionTemplate, 2);
+    }
+
+    @Test
+    void contributionOf_closedRegister_usesExitDayFareAndMinutes() {
+        Register register = closedRegister(LocalDateTime.of(2024, 3, 10, 23, 30), LocalDateTime.of(2024, 3, 11, 1, 15));
+
+        Optional<ParkingStatsService.Contribution> contribution = parkingStatsService.contributionOf(register);
+
+        assertTrue(contribution.isPresent());
+        assertEquals(1L, contribution.get().parkingId());
+        assertEquals(LocalDate.of(2024, 3, 11), contribution.get().statDate());
+        assertEquals(2L, contribution.get().fareId());
+        assertEquals(105, contribution.get().minutes());
+        assertEquals(new BigDecimal("17.50"), contribution.get().revenue());
+    }
+
+    @Test
+    void contributionOf_openRegister_isEmpty() {
+        Register register = closedRegister(LocalDateTime.of(2024, 3, 10, 8, 0), null);
+
+        assertTrue(parkingStatsService.contributionOf(register).isEmpty());
+    }
+
+    @Test
+    void subtract_upsertsNegatedContribution() {
+        ParkingStatsService.Contribution contribution = new ParkingStatsService.Contribution(1L,
+                LocalDate.of(2024, 3, 11), 2L, new BigDecimal("17.50"), 105);
+
+        parkingStatsService.add(contribution);
+        parkingStatsService.subtract(contribution);
+
+        verify(statsRepository).upsert(1L, LocalDate.of(2024, 3, 11), 2L, 1, new BigDecimal("17.50"), 105);
+        verify(statsRepository).upsert(1L, LocalDate.of(2024, 3, 11), 2L, -1, new BigDecimal("-17.50"), -105);
+    }
+
+    @Test
+    void getStats_sumsDaysAndSkipsEmptyRows() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+        when(statsRepository.findByParkingAndDateRange(1L, start, end)).thenReturn(List.of(
+                stats(LocalDate.of(2024, 1, 5), 1L, 3, "30.00", 180),
+                stats(LocalDate.of(2024, 1, 5), 2L, 0, "0.00", 0),
+                stats(LocalDate.of(2024, 6, 1), 1L, 2, "12.50", 45),
+                stats(LocalDate.of(2024, 6, 1), 2L, 1, "8.00", 20)));
+
+        ParkingStatsDTO result = parkingStatsService.getStats(1L, start, end);
+
+        assertEquals(6, result.getCount());
+        assertEquals(245, result.getMinutes());
+        assertEquals(new BigDecimal("50.50"), result.getRevenue());
+        assertEquals(new BigDecimal("42.50"), result.getRevenueByFare().get(1L));
+        assertEquals(new BigDecimal("8.00"), result.getRevenueByFare().get(2L));
+        assertEquals(3, result.getDays().size());
+    }
+
+    @Test
+    void backfill_rebuildsOneChunkPerMonth() {
+        when(statsRepository.rebuildRange(any(), any())).thenReturn(10);
+
+        long rows = parkingStatsService.backfill(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10));
+
+        assertEquals(30, rows);
+        verify(statsRepository).deleteRange(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 2, 1));
+        verify(statsRepository).deleteRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+        verify(statsRepository).deleteRange(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 11));
+        verify(statsRepository).rebuildRange(eq(LocalDateTime.of(2024, 3, 1, 0, 0)), eq(LocalDateTime.of(2024, 3, 11, 0, 0)));
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void backfill_chunkFails_throwsIllegalStateException() {
+        when(statsRepository.rebuildRange(any(), any())).thenThrow(new RuntimeException("connection lost"));
+
+        assertThrows(IllegalStateException.class,
+                () -> parkingStatsService.backfill(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+    }
+
+    private Register closedRegister(LocalDateTime startDate, LocalDateTime endDate) {
+        Parking parking = new Parking();
+        parking.setParkingId(1L);
+        Fare fare = new Fare();
+        fare.setFareId(2L);
+        Register register = new Register();
+        register.setParking(parking);
+        register.setFare(fare);
+        register.setStartDate(startDate);
+        register.setEndDate(endDate);
+        register.setTotal(new BigDecimal("17.50"));
+        return register;
+    }
+
+    private ParkingDailyStats stats(LocalDate statDate, long fareId, long count, String revenue, long minutes) {
+        return new ParkingDailyStats(new ParkingDailyStatsId(1L, statDate, fareId), count, new BigDecimal(revenue), minutes);
+    }
+}
@@ -1,11 +1,19 @@
 package org.grupo.uno.parking.data.service;
 
 
+import org.grupo.uno.parking.data.dto.RegisterDTO;
 import org.grupo.uno.parking.data.exceptions.ExceptionPdf;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
 
 class PdfServiceTest {
 
@@ -41,4 +49,25 @@ class PdfServiceTest {
 
         assertEquals("Failed to parse JSON to RegisterDTO", exception.getMessage());
     }
+
+    @Test
+    void writeRegistersPdf_manyRowsWithMissingValues_writesPdfAndKeepsStreamOpen() {
+        List<RegisterDTO> registers = IntStream.range(0, 250)
+                .mapToObj(i -> new RegisterDTO(i, "P" + i, true, LocalDateTime.of(2023, 10, 21, 12, 0),
+                        i % 2 == 0 ? null : LocalDateTime.of(2023, 10, 21, 14, 0), 1L, 1L,
+                        i % 2 == 0 ? null : BigDecimal.TEN))
+                .toList();
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        pdfService.writeRegistersPdf(registers.iterator(), output);
+
+        assertTrue(new String(output.toByteArray(), 0, 5).startsWith("%PDF-"));
+        assertFalse(closed.get());
+    }
 }
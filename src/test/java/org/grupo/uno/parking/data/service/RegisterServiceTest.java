@@ -3,7 +3,13 @@ package org.grupo.uno.parking.data.service;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.grupo.uno.parking.data.configuration.JacksonConfig;
+import org.grupo.uno.parking.data.dto.BatchResultDTO;
 import org.grupo.uno.parking.data.dto.RegisterDTO;
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.exceptions.ParkingFullException;
+import org.grupo.uno.parking.data.exceptions.VehicleAlreadyInsideException;
 import org.grupo.uno.parking.data.model.Fare;
 import org.grupo.uno.parking.data.model.Parking;
 import org.grupo.uno.parking.data.model.Register;
@@ -13,16 +19,32 @@ import org.grupo.uno.parking.data.repository.RegisterRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 class RegisterServiceTest {
 
@@ -35,9 +57,33 @@ class RegisterServiceTest {
     @Mock
     private FareRepository fareRepository;
 
+    @Mock
+    private IServiceFare fareService;
+
+    @Mock
+    private OccupancyService occupancyService;
+
+    @Mock
+    private ActiveSessionIndex activeSessionIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PdfService pdfService;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private ParkingStatsService parkingStatsService;
+
     @Mock
     private AudithService audithService;
 
+    @Spy
+    private ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
     @InjectMocks
     private RegisterService registerService;
 
@@ -47,8 +93,12 @@ class RegisterServiceTest {
     private Fare fare;
 
     @BeforeEach
-    public void setUp() {
+    public void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        when(reportCache.export(anyLong(), any(), any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.<ReportCache.ReportWriter>getArgument(5).write(invocation.getArgument(4)));
 
         registerDTO = new RegisterDTO();
         registerDTO.setRegisterId(1);
@@ -80,6 +130,9 @@ class RegisterServiceTest {
     @Test
     void registroDeEntrada_createsRegisterSuccessfully() {
         when(parkingRepository.findById(1L)).thenReturn(Optional.of(parking));
+        when(activeSessionIndex.reserve(eq("ABC123"), eq(1L), any(LocalDateTime.class))).thenReturn(true);
+        when(activeSessionIndex.isLoaded()).thenReturn(true);
+        when(occupancyService.tryAdmit(parking)).thenReturn(true);
         when(registerRepository.save(any(Register.class))).thenReturn(register);
 
         RegisterDTO result = registerService.registroDeEntrada("ABC123", 1L);
@@ -87,12 +140,35 @@ class RegisterServiceTest {
         assertNotNull(result);
         assertEquals("ABC123", result.getPlate());
         verify(registerRepository).save(any(Register.class));
+        verify(activeSessionIndex).activate(1L, "ABC123", register.getStartDate(), 1L);
+    }
+
+    @Test
+    void registroDeEntrada_vehicleAlreadyInside_throwsVehicleAlreadyInsideException() {
+        when(parkingRepository.findById(1L)).thenReturn(Optional.of(parking));
+        when(activeSessionIndex.reserve(eq("ABC123"), eq(1L), any(LocalDateTime.class))).thenReturn(false);
+
+        assertThrows(VehicleAlreadyInsideException.class, () -> registerService.registroDeEntrada("ABC123", 1L));
+        verify(occupancyService, never()).tryAdmit(any());
+        verify(registerRepository, never()).save(any(Register.class));
+    }
+
+    @Test
+    void registroDeEntrada_parkingFull_throwsParkingFullException() {
+        when(parkingRepository.findById(1L)).thenReturn(Optional.of(parking));
+        when(activeSessionIndex.reserve(eq("ABC123"), eq(1L), any(LocalDateTime.class))).thenReturn(true);
+        when(activeSessionIndex.isLoaded()).thenReturn(true);
+        when(occupancyService.tryAdmit(parking)).thenReturn(false);
+
+        assertThrows(ParkingFullException.class, () -> registerService.registroDeEntrada("ABC123", 1L));
+        verify(registerRepository, never()).save(any(Register.class));
+        verify(activeSessionIndex).cancel("ABC123");
     }
 
     @Test
     void registroDeSalida_updatesRegisterSuccessfully() {
         when(registerRepository.findActiveRegisterByPlate("ABC123")).thenReturn(Optional.of(register));
-        when(fareRepository.findAll()).thenReturn(Arrays.asList(fare));
+        when(fareService.getFareSchedule()).thenReturn(FareSchedule.compile(Arrays.asList(fare)));
         when(registerRepository.save(any(Register.class))).thenReturn(register);
 
         RegisterDTO result = registerService.registroDeSalida("ABC123");
@@ -100,6 +176,142 @@ class RegisterServiceTest {
         assertNotNull(result);
         assertEquals(register.getTotal(), result.getTotal());
         verify(registerRepository).save(any(Register.class));
+        verify(occupancyService).release(1L);
+    }
+
+    @Test
+    void registroDeSalida_indexedSession_closesRegisterWithoutLookup() {
+        LocalDateTime startDate = LocalDateTime.now().minusHours(2);
+        when(activeSessionIndex.find("ABC123"))
+                .thenReturn(Optional.of(new ActiveSessionIndex.ActiveSession(1L, "ABC123", startDate, 1L)));
+        when(fareService.getFareSchedule()).thenReturn(FareSchedule.compile(Arrays.asList(fare)));
+        when(registerRepository.closeRegister(eq(1L), any(LocalDateTime.class), eq(fare), any(BigDecimal.class))).thenReturn(1);
+
+        RegisterDTO result = registerService.registroDeSalida("ABC123");
+
+        assertEquals(1L, result.getRegisterId());
+        assertEquals(1L, result.getFareId());
+        assertFalse(result.isStatus());
+        verify(registerRepository, never()).findActiveRegisterByPlate(anyString());
+        verify(activeSessionIndex).release("ABC123", 1L);
+        verify(occupancyService).release(1L);
+        verify(registerRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void registroDeSalidaBatch_concurrentExits_closeTheRegisterOnce() throws Exception {
+        when(activeSessionIndex.find("ABC123")).thenReturn(Optional.empty());
+        when(fareService.getFareSchedule()).thenReturn(FareSchedule.compile(Arrays.asList(fare)));
+        when(registerRepository.findActiveRegistersByPlateIn(List.of("ABC123"))).thenReturn(List.of(register));
+        when(parkingStatsService.contributionOf(any(Register.class))).thenReturn(Optional.of(
+                new ParkingStatsService.Contribution(1L, LocalDate.now(), 1L, BigDecimal.TEN, 60)));
+        // Como el UPDATE ... WHERE end_date IS NULL: solo la primera salida cambia la fila
+        AtomicBoolean open = new AtomicBoolean(true);
+        CountDownLatch bothLoaded = new CountDownLatch(2);
+        when(registerRepository.closeRegister(eq(1L), any(LocalDateTime.class), eq(fare), any(BigDecimal.class)))
+                .thenAnswer(invocation -> {
+                    bothLoaded.countDown();
+                    bothLoaded.await(5, TimeUnit.SECONDS);
+                    return open.getAndSet(false) ? 1 : 0;
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<BatchResultDTO>> first = executor.submit(() -> registerService.registroDeSalidaBatch(List.of("ABC123")));
+            Future<List<BatchResultDTO>> second = executor.submit(() -> registerService.registroDeSalidaBatch(List.of("ABC123")));
+            List<Integer> statuses = Stream.of(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS))
+                    .map(results -> results.get(0).getStatus()).sorted().toList();
+
+            assertEquals(List.of(200, 404), statuses);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(parkingStatsService, times(1)).add(any());
+        verify(occupancyService, times(1)).release(1L);
+        verify(audithService, times(1)).createAudit(eq("Register"), eq(1L), eq("Registro de salida en lote"),
+                eq("UPDATE"), anyMap(), anyMap(), anyString());
+    }
+
+    @Test
+    void registroDeSalidaBatch_duplicateActiveRows_closesBothAndAuditsEach() {
+        Register duplicate = new Register();
+        duplicate.setRegisterId(2L);
+        duplicate.setPlate("ABC123");
+        duplicate.setStatus(true);
+        duplicate.setStartDate(register.getStartDate());
+        duplicate.setParking(parking);
+        when(activeSessionIndex.find("ABC123")).thenReturn(Optional.empty());
+        when(fareService.getFareSchedule()).thenReturn(FareSchedule.compile(Arrays.asList(fare)));
+        when(registerRepository.findActiveRegistersByPlateIn(List.of("ABC123"))).thenReturn(List.of(register, duplicate));
+        when(registerRepository.closeRegister(anyLong(), any(LocalDateTime.class), eq(fare), any(BigDecimal.class))).thenReturn(1);
+
+        List<BatchResultDTO> results = registerService.registroDeSalidaBatch(List.of("ABC123"));
+
+        assertEquals(1, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        verify(audithService).createAudit(eq("Register"), eq(1L), eq("Registro de salida en lote"), eq("UPDATE"), anyMap(), anyMap(), eq("Succes"));
+        verify(audithService).createAudit(eq("Register"), eq(2L), eq("Registro de salida en lote"), eq("UPDATE"), anyMap(), anyMap(), eq("Succes"));
+    }
+
+    @Test
+    void registroDeEntradaBatch_savesAdmittedEntriesInOneBatch() {
+        RegisterDTO full = new RegisterDTO();
+        full.setPlate("XYZ789");
+        full.setParkingId(1);
+        RegisterDTO unknownParking = new RegisterDTO();
+        unknownParking.setPlate("JKL456");
+        unknownParking.setParkingId(9);
+
+        when(parkingRepository.findAllById(anyList())).thenReturn(List.of(parking));
+        when(activeSessionIndex.reserve(anyString(), eq(1L), any(LocalDateTime.class))).thenReturn(true);
+        when(activeSessionIndex.isLoaded()).thenReturn(true);
+        when(occupancyService.tryAdmit(parking)).thenReturn(true, false);
+        when(registerRepository.saveAll(anyList())).thenReturn(List.of(register));
+
+        List<BatchResultDTO> results = registerService.registroDeEntradaBatch(List.of(registerDTO, full, unknownParking));
+
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(409, results.get(1).getStatus());
+        assertEquals(404, results.get(2).getStatus());
+        verify(registerRepository, times(1)).saveAll(anyList());
+        verify(registerRepository, never()).save(any(Register.class));
+        verify(activeSessionIndex).cancel("XYZ789");
+        verify(activeSessionIndex).activate(1L, "ABC123", register.getStartDate(), 1L);
+    }
+
+    @Test
+    void registroDeEntradaBatch_saveFails_undoesReservations() {
+        when(parkingRepository.findAllById(anyList())).thenReturn(List.of(parking));
+        when(activeSessionIndex.reserve(eq("ABC123"), eq(1L), any(LocalDateTime.class))).thenReturn(true);
+        when(activeSessionIndex.isLoaded()).thenReturn(true);
+        when(occupancyService.tryAdmit(parking)).thenReturn(true);
+        doThrow(new RuntimeException("connection lost")).when(transactionTemplate).execute(any());
+
+        List<BatchResultDTO> results = registerService.registroDeEntradaBatch(List.of(registerDTO));
+
+        assertEquals(500, results.get(0).getStatus());
+        verify(occupancyService).release(1L);
+        verify(activeSessionIndex).cancel("ABC123");
+    }
+
+    @Test
+    void registroDeSalidaBatch_closesActiveRegisters() {
+        when(activeSessionIndex.find("ABC123"))
+                .thenReturn(Optional.of(new ActiveSessionIndex.ActiveSession(1L, "ABC123", register.getStartDate(), 1L)));
+        when(activeSessionIndex.find("NOPE000")).thenReturn(Optional.empty());
+        when(fareService.getFareSchedule()).thenReturn(FareSchedule.compile(Arrays.asList(fare)));
+        when(registerRepository.findAllById(List.of(1L))).thenReturn(List.of(register));
+        when(registerRepository.findActiveRegistersByPlateIn(List.of("NOPE000"))).thenReturn(List.of());
+        when(registerRepository.closeRegister(eq(1L), any(LocalDateTime.class), eq(fare), any(BigDecimal.class))).thenReturn(1);
+
+        List<BatchResultDTO> results = registerService.registroDeSalidaBatch(List.of("ABC123", "NOPE000", "ABC123"));
+
+        assertEquals(200, results.get(0).getStatus());
+        assertFalse(results.get(0).getRegister().isStatus());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(409, results.get(2).getStatus());
+        verify(activeSessionIndex).release("ABC123", 1L);
+        verify(occupancyService).release(1L);
     }
 
     @Test
@@ -126,8 +338,8 @@ class RegisterServiceTest {
 
     @Test
     void saveRegister_createsRegisterSuccessfully() {
-        when(parkingRepository.existsById(anyLong())).thenReturn(true);
-        when(fareRepository.existsById(anyLong())).thenReturn(true);
+        when(parkingRepository.findById(anyLong())).thenReturn(Optional.of(parking));
+        when(fareRepository.findById(anyLong())).thenReturn(Optional.of(fare));
         when(registerRepository.save(any(Register.class))).thenReturn(register);
 
         RegisterDTO result = registerService.saveRegister(registerDTO);
@@ -142,23 +354,41 @@ class RegisterServiceTest {
 
         when(registerRepository.findById(1L)).thenReturn(Optional.of(register));
         when(registerRepository.save(any(Register.class))).thenReturn(register);
-        when(parkingRepository.existsById(registerDTO.getParkingId())).thenReturn(true);
-        when(fareRepository.existsById(registerDTO.getFareId())).thenReturn(true);
+        when(parkingRepository.findById(registerDTO.getParkingId())).thenReturn(Optional.of(parking));
+        when(fareRepository.findById(registerDTO.getFareId())).thenReturn(Optional.of(fare));
 
         RegisterDTO result = registerService.updateRegister(registerDTO, 1L);
 
         assertNotNull(result);
         assertEquals("ABC123", result.getPlate());
         verify(registerRepository).save(any(Register.class));
+        verify(reportCache).invalidate(1L, registerDTO.getEndDate());
     }
 
     @Test
     void deleteRegister_deletesRegisterSuccessfully() {
         when(registerRepository.findById(1L)).thenReturn(Optional.of(register));
 
+        register.setEndDate(LocalDateTime.of(2024, 1, 15, 12, 0));
+
         registerService.deleteRegister(1L);
 
         verify(registerRepository).deleteById(1L);
+        verify(reportCache).invalidate(1L, LocalDateTime.of(2024, 1, 15, 12, 0));
+    }
+
+    @Test
+    void deleteRegister_closedRegister_subtractsDailyStats() {
+        ParkingStatsService.Contribution contribution = new ParkingStatsService.Contribution(1L,
+                LocalDate.of(2024, 1, 15), 1L, BigDecimal.TEN, 60);
+        register.setEndDate(LocalDateTime.of(2024, 1, 15, 12, 0));
+        when(registerRepository.findById(1L)).thenReturn(Optional.of(register));
+        when(parkingStatsService.contributionOf(register)).thenReturn(Optional.of(contribution));
+
+        registerService.deleteRegister(1L);
+
+        verify(parkingStatsService).subtract(contribution);
+        verify(parkingStatsService, never()).add(any());
     }
 
     @Test
@@ -174,14 +404,52 @@ class RegisterServiceTest {
     }
 
     @Test
-    void generateReportByParkingIdPDF_returnsPDFReportSuccessfully() {
-        when(registerRepository.findActiveRegistersByParkingIdAndDateRange(anyLong(), any(), any()))
-                .thenReturn(Arrays.asList(register));
+    void exportReport_writesOneJsonLinePerRegister() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        RegisterDTO second = new RegisterDTO(2L, "XYZ789", false, registerDTO.getStartDate(),
+                registerDTO.getEndDate(), 1L, 1L, BigDecimal.valueOf(5.5));
+        when(registerRepository.streamReportByParkingIdAndDateRange(eq(1L), any(), any()))
+                .thenReturn(Stream.of(registerDTO, second).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = registerService.exportReport(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now(),
+                ReportFormat.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"registerId\":1,\"plate\":\"ABC123\""));
+        assertTrue(lines[1].contains("\"plate\":\"XYZ789\""));
+        assertTrue(closed.get());
+        verify(audithService).createAudit(eq("Register"), anyString(), eq("REPORT"), anyMap(), eq(Map.of("rows", 2L)), anyString());
+    }
+
+    @Test
+    void exportReport_pdf_rendersRowsFromCursor() throws Exception {
+        when(registerRepository.streamReportByParkingIdAndDateRange(eq(1L), any(), any())).thenReturn(Stream.of(registerDTO));
+        doAnswer(invocation -> {
+            Iterator<RegisterDTO> registers = invocation.getArgument(0);
+            registers.forEachRemaining(register -> { });
+            return null;
+        }).when(pdfService).writeRegistersPdf(any(), any());
+
+        long rows = registerService.exportReport(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now(),
+                ReportFormat.PDF, new ByteArrayOutputStream());
+
+        assertEquals(1, rows);
+        verify(pdfService).writeRegistersPdf(any(), any());
+    }
 
-        var result = registerService.generateReportByParkingIdPDF(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now());
+    @Test
+    void exportReport_cacheHit_isAuditedWithoutQuerying() throws Exception {
+        doReturn(4L).when(reportCache).export(anyLong(), any(), any(), eq(ReportFormat.PDF), any(), any());
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(audithService).createAudit(anyString(), anyString(), anyString(), any(), any(), anyString());
+        long rows = registerService.exportReport(1L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                ReportFormat.PDF, new ByteArrayOutputStream());
+
+        assertEquals(4, rows);
+        verify(registerRepository, never()).streamReportByParkingIdAndDateRange(any(), any(), any());
+        verify(audithService).createAudit(eq("Register"), anyString(), eq("REPORT"), anyMap(), eq(Map.of("rows", 4L)), anyString());
     }
+
 }
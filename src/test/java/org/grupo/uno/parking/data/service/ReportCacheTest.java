@@ -0,0 +1,112 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ReportCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private final LocalDateTime endDate = LocalDateTime.of(2024, 1, 31, 23, 59);
+    private final AtomicInteger renders = new AtomicInteger();
+
+    private ReportCache.ReportWriter writer(String content) {
+        return outputStream -> {
+            renders.incrementAndGet();
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+            return 1;
+        };
+    }
+
+    private String export(ReportCache cache, long parkingId, LocalDateTime end, String content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        cache.export(parkingId, startDate, end, ReportFormat.NDJSON, output, writer(content));
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void export_closedRange_rendersOnceAndServesFromDisk() throws Exception {
+        ReportCache cache = new ReportCache(directory.toString(), 1024);
+
+        assertEquals("{\"plate\":\"ABC123\"}\n", export(cache, 1L, endDate, "{\"plate\":\"ABC123\"}\n"));
+        assertEquals("{\"plate\":\"ABC123\"}\n", export(cache, 1L, endDate, "changed"));
+
+        assertEquals(1, renders.get());
+        assertTrue(cache.contains(1L, startDate, endDate, ReportFormat.NDJSON));
+        assertEquals(19, cache.getTotalBytes());
+    }
+
+    @Test
+    void constructor_deletesOnlyItsOwnFiles() throws Exception {
+        Files.writeString(directory.resolve("report-123.ndjson"), "{}");
+        Files.writeString(directory.resolve("report-456.pdf"), "%PDF-1.7");
+        Files.writeString(directory.resolve("notas.pdf"), "%PDF-1.7");
+        Files.createDirectories(directory.resolve("report-789.pdf"));
+
+        new ReportCache(directory.toString(), 1024);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(Set.of("notas.pdf", "report-789.pdf"),
+                    files.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void export_openRange_isNotCached() throws Exception {
+        ReportCache cache = new ReportCache(directory.toString(), 1024);
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+
+        export(cache, 1L, future, "a");
+        export(cache, 1L, future, "a");
+
+        assertEquals(2, renders.get());
+        assertFalse(cache.contains(1L, startDate, future, ReportFormat.NDJSON));
+    }
+
+    @Test
+    void invalidate_endDateInRange_dropsEntryAndFile() throws Exception {
+        ReportCache cache = new ReportCache(directory.toString(), 1024);
+        export(cache, 1L, endDate, "report");
+        export(cache, 2L, endDate, "report");
+
+        cache.invalidate(1L, LocalDateTime.of(2024, 1, 15, 10, 0));
+        cache.invalidate(2L, LocalDateTime.of(2024, 3, 1, 10, 0));
+
+        assertFalse(cache.contains(1L, startDate, endDate, ReportFormat.NDJSON));
+        assertTrue(cache.contains(2L, startDate, endDate, ReportFormat.NDJSON));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void export_overBudget_evictsLeastRecentlyUsed() throws Exception {
+        ReportCache cache = new ReportCache(directory.toString(), 10);
+        export(cache, 1L, endDate, "1111");
+        export(cache, 2L, endDate, "2222");
+        export(cache, 1L, endDate, "1111");
+
+        export(cache, 3L, endDate, "3333");
+
+        assertTrue(cache.contains(1L, startDate, endDate, ReportFormat.NDJSON));
+        assertFalse(cache.contains(2L, startDate, endDate, ReportFormat.NDJSON));
+        assertTrue(cache.contains(3L, startDate, endDate, ReportFormat.NDJSON));
+        assertEquals(8, cache.getTotalBytes());
+    }
+}
@@ -0,0 +1,144 @@
+package org.grupo.uno.parking.data.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.grupo.uno.parking.data.dto.ReportFormat;
+import org.grupo.uno.parking.data.dto.ReportJobDTO;
+import org.grupo.uno.parking.data.dto.ReportJobStatus;
+import org.grupo.uno.parking.data.exceptions.ReportQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ReportJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private IRegisterService registerService;
+    private ReportJobService reportJobService;
+
+    private final LocalDate startDate = LocalDate.of(2024, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2024, 1, 31);
+
+    @BeforeEach
+    void setUp() {
+        registerService = mock(IRegisterService.class);
+        reportJobService = new ReportJobService(registerService, 1, 1, 0, directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void constructor_deletesFilesLeftByAPreviousRun() throws Exception {
+        reportJobService.shutdown();
+        String id = UUID.randomUUID().toString();
+        Files.writeString(directory.resolve(id + ".pdf"), "%PDF-1.7");
+        Files.writeString(directory.resolve(UUID.randomUUID() + ".part"), "%PDF");
+        Files.writeString(directory.resolve("notas.pdf"), "%PDF-1.7");
+        Files.createDirectories(directory.resolve(id + ".ndjson"));
+
+        reportJobService = new ReportJobService(registerService, 1, 1, 0, directory.toString());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(Set.of("notas.pdf", id + ".ndjson"),
+                    files.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void submit_rendersReportToFile() throws Exception {
+        when(registerService.exportReport(eq(1L), any(), any(), eq(ReportFormat.PDF), any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(4);
+            outputStream.write("%PDF-1.7".getBytes());
+            return 3L;
+        });
+
+        ReportJobDTO job = reportJobService.submit(1L, startDate, endDate, ReportFormat.PDF);
+        ReportJobDTO finished = awaitFinished(job.getJobId());
+
+        assertEquals(ReportJobStatus.DONE, finished.getStatus());
+        assertEquals(3L, finished.getRows());
+        Resource file = reportJobService.getJobFile(job.getJobId());
+        assertEquals("%PDF-1.7", Files.readString(file.getFile().toPath()));
+        assertEquals(job.getJobId() + ".pdf", file.getFilename());
+    }
+
+    @Test
+    void submit_exportFails_marksJobFailedAndRemovesPartialFile() throws Exception {
+        when(registerService.exportReport(any(), any(), any(), any(), any())).thenThrow(new RuntimeException("cursor closed"));
+
+        ReportJobDTO job = reportJobService.submit(1L, startDate, endDate, ReportFormat.NDJSON);
+        ReportJobDTO finished = awaitFinished(job.getJobId());
+
+        assertEquals(ReportJobStatus.FAILED, finished.getStatus());
+        assertEquals("cursor closed", finished.getError());
+        assertThrows(IllegalStateException.class, () -> reportJobService.getJobFile(job.getJobId()));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void submit_queueFull_rejectsJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(registerService.exportReport(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        });
+
+        reportJobService.submit(1L, startDate, endDate, ReportFormat.PDF);
+        reportJobService.submit(1L, startDate, endDate, ReportFormat.PDF);
+
+        assertThrows(ReportQueueFullException.class, () -> reportJobService.submit(1L, startDate, endDate, ReportFormat.PDF));
+        release.countDown();
+    }
+
+    @Test
+    void purgeExpired_removesFinishedJobsAndFiles() throws Exception {
+        when(registerService.exportReport(any(), any(), any(), any(), any())).thenReturn(0L);
+        ReportJobDTO job = reportJobService.submit(1L, startDate, endDate, ReportFormat.NDJSON);
+        awaitFinished(job.getJobId());
+        Path file = reportJobService.getJobFile(job.getJobId()).getFile().toPath();
+        Thread.sleep(5);
+
+        reportJobService.purgeExpired();
+
+        assertTrue(reportJobService.getJob(job.getJobId()).isEmpty());
+        assertFalse(Files.exists(file));
+        assertThrows(EntityNotFoundException.class, () -> reportJobService.getJobFile(job.getJobId()));
+    }
+
+    private ReportJobDTO awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            ReportJobDTO job = reportJobService.getJob(jobId).orElseThrow();
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Report job " + jobId + " did not finish");
+        return null;
+    }
+}
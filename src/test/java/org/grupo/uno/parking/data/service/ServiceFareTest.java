@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.data.domain.PageRequest.of;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -82,7 +84,6 @@ class ServiceFareTest {
 
     @Test
     void delete_existingFare_deletesFare() {
-        when(fareRepository.existsById(1L)).thenReturn(true);
         when(fareRepository.findById(1L)).thenReturn(Optional.of(fare));
         serviceFare.delete(1L);
 
@@ -91,7 +92,7 @@ class ServiceFareTest {
 
     @Test
     void delete_nonExistingFare_throwsException() {
-        when(fareRepository.existsById(1L)).thenReturn(false);
+        when(fareRepository.findById(1L)).thenReturn(Optional.empty());
         assertThrows(EntityNotFoundException.class, () -> {
             serviceFare.delete(1L);
         });
@@ -99,16 +100,28 @@ class ServiceFareTest {
 
     @Test
     void updateFare_existingFare_updatesFare() {
-        when(fareRepository.existsById(1L)).thenReturn(true);
         when(fareRepository.findById(1L)).thenReturn(Optional.of(fare));
         serviceFare.updateFare(fareDto, 1L);
         verify(fareRepository).save(fare);
         assertEquals("Test Fare", fare.getName());
     }
 
+    @Test
+    void updateFare_existingFare_auditsOnlyChangedFields() {
+        Fare stored = new Fare(1L, "Test Fare", "08:00", "18:00", 5.0, true);
+        when(fareRepository.findById(1L)).thenReturn(Optional.of(stored));
+        FareDto priceOnly = new FareDto();
+        priceOnly.setPrice(7.5);
+
+        serviceFare.updateFare(priceOnly, 1L);
+
+        verify(audithService).createAudit("Fare", 1L, "Fare with ID 1 was updated", "UPDATE",
+                Map.of("id", 1L, "price", 5.0), Map.of("id", 1L, "price", 7.5), "SUCCESS");
+    }
+
     @Test
     void updateFare_nonExistingFare_throwsException() {
-        when(fareRepository.existsById(1L)).thenReturn(false);
+        when(fareRepository.findById(1L)).thenReturn(Optional.empty());
         assertThrows(EntityNotFoundException.class, () -> {
             serviceFare.updateFare(fareDto, 1L);
         });
@@ -124,6 +137,18 @@ class ServiceFareTest {
         verify(fareRepository).save(any(Fare.class));
     }
 
+    @Test
+    void addFare_validFare_rebuildsFareSchedule() {
+        when(fareRepository.findByName(fareDto.getName())).thenReturn(Optional.empty());
+        when(fareRepository.save(any(Fare.class))).thenReturn(fare);
+        when(fareRepository.findAll()).thenReturn(List.of(fare));
+
+        serviceFare.addFare(fareDto);
+
+        assertEquals(fare, serviceFare.getFareSchedule().fareAt(9 * 60));
+        verify(fareRepository, times(1)).findAll();
+    }
+
     @Test
     void addFare_existingFare_throwsException() {
         when(fareRepository.findByName(fareDto.getName())).thenReturn(Optional.of(fare));